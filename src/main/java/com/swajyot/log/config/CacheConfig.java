@@ -0,0 +1,69 @@
+package com.swajyot.log.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import com.swajyot.log.model.InspectionForm;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Read-through caches for single forms and users, bounded by entry count and time since loading,
+ * with hit/miss/eviction statistics.
+ *
+ * The manager is transaction-aware: puts and evictions made inside a transaction only reach the
+ * cache after it commits, so a rolled-back change never evicts or replaces a committed value.
+ * Cached entities are detached and shared between requests; callers must not modify them.
+ * Forms are only ever replaced by a newer version (see VersionGuardedCaffeineCache).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String FORMS = "inspectionForms";
+    public static final String USERS = "users";
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+    // Listing results, see InspectionFormQueryCache
+    public static final String FORM_QUERIES = "inspectionFormQueries";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.forms.maximum-size:10000}") long formsMaximumSize,
+                                     @Value("${app.cache.forms.expire-after-write:10m}") Duration formsTtl,
+                                     @Value("${app.cache.users.maximum-size:1000}") long usersMaximumSize,
+                                     @Value("${app.cache.users.expire-after-write:30m}") Duration usersTtl,
+                                     @Value("${app.cache.form-queries.maximum-size:500}") long queriesMaximumSize,
+                                     @Value("${app.cache.form-queries.expire-after-write:10m}") Duration queriesTtl) {
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return FORMS.equals(name)
+                        ? new VersionGuardedCaffeineCache<>(name, cache, InspectionForm.class, CacheConfig::versionOf)
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        manager.setAllowNullValues(false);
+        manager.registerCustomCache(FORMS, cache(formsMaximumSize, formsTtl));
+        manager.registerCustomCache(USERS, cache(usersMaximumSize, usersTtl));
+        manager.registerCustomCache(USERS_BY_USERNAME, cache(usersMaximumSize, usersTtl));
+        manager.registerCustomCache(FORM_QUERIES, cache(queriesMaximumSize, queriesTtl));
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+
+    private static long versionOf(InspectionForm form) {
+        return form.getVersion() != null ? form.getVersion() : -1;
+    }
+
+    private static Cache<Object, Object> cache(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
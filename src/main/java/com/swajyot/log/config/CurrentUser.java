@@ -0,0 +1,32 @@
+package com.swajyot.log.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * The user making the current request, as named by the X-User header, for attributing
+ * changes in the form history. Null outside requests or when the header is missing.
+ */
+public final class CurrentUser implements HandlerInterceptor {
+
+    public static final String HEADER = "X-User";
+
+    private static final ThreadLocal<String> USERNAME = new ThreadLocal<>();
+
+    public static String get() {
+        return USERNAME.get();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String username = request.getHeader(HEADER);
+        USERNAME.set(username == null || username.isBlank() ? null : username.trim());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        USERNAME.remove();
+    }
+}
@@ -6,6 +6,8 @@ import com.swajyot.log.model.Lacquer;
 import com.swajyot.log.model.User;
 import com.swajyot.log.repository.InspectionFormRepository;
 import com.swajyot.log.repository.UserRepository;
+import com.swajyot.log.service.InspectionFormHistoryService;
+import com.swajyot.log.service.InspectionFormRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -23,6 +25,8 @@ public class DataInitializer {
 
     private final UserRepository userRepository;
     private final InspectionFormRepository inspectionFormRepository;
+    private final InspectionFormRollupService rollupService;
+    private final InspectionFormHistoryService historyService;
 
     @Bean
     @Profile("!prod") // Only run in non-production environments
@@ -179,6 +183,11 @@ public class DataInitializer {
         // Save forms to the database
         inspectionFormRepository.save(form1);
         inspectionFormRepository.save(form2);
+        // Saved straight through the repository, so bring the statistics rollups up to date
+        // and start the forms' history
+        rollupService.rebuild();
+        historyService.recordCreated(form1);
+        historyService.recordCreated(form2);
         
         System.out.println("Created 2 sample inspection forms");
     }
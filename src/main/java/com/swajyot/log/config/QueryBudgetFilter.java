@@ -0,0 +1,101 @@
+package com.swajyot.log.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts the SQL of each HTTP request with a QueryInspector scope. Records the statement count,
+ * fetched rows and JDBC time per endpoint (jdbc.request.*), and logs requests that exceed a budget:
+ * too many statements, rows or JDBC time, or one statement repeated often enough to suggest an
+ * N+1 pattern. A budget of 0 is not checked. Work handed to other threads (streaming responses,
+ * the event writer) is not attributed to the request.
+ */
+@Slf4j
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final long maxStatements;
+    private final long maxRows;
+    private final long maxJdbcMillis;
+    private final int maxRepeats;
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry,
+                             @Value("${app.query-budget.max-statements:50}") long maxStatements,
+                             @Value("${app.query-budget.max-rows:10000}") long maxRows,
+                             @Value("${app.query-budget.max-jdbc-millis:1000}") long maxJdbcMillis,
+                             @Value("${app.query-budget.max-repeats:10}") int maxRepeats) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxRows = maxRows;
+        this.maxJdbcMillis = maxJdbcMillis;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryInspector.Scope queries = QueryInspector.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            queries.close();
+            report(request, queries);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryInspector.Scope queries) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("jdbc.request.statements").tags(tags).register(meterRegistry)
+                .record(queries.statements());
+        DistributionSummary.builder("jdbc.request.rows").tags(tags).register(meterRegistry)
+                .record(queries.rowsFetched());
+        Timer.builder("jdbc.request.time").tags(tags).register(meterRegistry)
+                .record(queries.jdbcTime());
+
+        List<String> exceeded = new ArrayList<>();
+        if (maxStatements > 0 && queries.statements() > maxStatements) {
+            exceeded.add("statements");
+        }
+        if (maxRows > 0 && queries.rowsFetched() > maxRows) {
+            exceeded.add("rows");
+        }
+        if (maxJdbcMillis > 0 && queries.jdbcTime().toMillis() > maxJdbcMillis) {
+            exceeded.add("time");
+        }
+        Optional<Map.Entry<String, Integer>> mostRepeated = queries.mostRepeated();
+        if (maxRepeats > 0 && mostRepeated.isPresent() && mostRepeated.get().getValue() > maxRepeats) {
+            exceeded.add("repeats");
+        }
+        if (exceeded.isEmpty()) {
+            return;
+        }
+        for (String budget : exceeded) {
+            meterRegistry.counter("jdbc.request.budget.exceeded", tags.and("budget", budget)).increment();
+        }
+        log.warn("{} {} exceeded query budget {}: {} statements, {} rows, {} ms JDBC; most repeated {}x: {}",
+                request.getMethod(), request.getRequestURI(), exceeded, queries.statements(),
+                queries.rowsFetched(), queries.jdbcTime().toMillis(),
+                mostRepeated.map(Map.Entry::getValue).orElse(0), mostRepeated.map(Map.Entry::getKey).orElse("-"));
+    }
+}
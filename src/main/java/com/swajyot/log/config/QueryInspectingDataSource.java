@@ -0,0 +1,149 @@
+package com.swajyot.log.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Data source wrapper that reports executed statements, fetched rows and JDBC time to the
+ * QueryInspector scope of the calling thread, and logs single statements slower than a threshold
+ * wherever they run. Connections, statements and result sets are wrapped in JDK proxies that
+ * forward every call; only statement execution and ResultSet.next() are measured.
+ */
+@Slf4j
+public class QueryInspectingDataSource extends DelegatingDataSource {
+
+    private final long slowStatementNanos;
+
+    public QueryInspectingDataSource(DataSource target, long slowStatementMillis) {
+        super(target);
+        this.slowStatementNanos = slowStatementMillis * 1_000_000;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryInspectingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private abstract static class ForwardingHandler implements InvocationHandler {
+
+        private final Object target;
+
+        ForwardingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Identity semantics for the proxy itself; callers keep statements in hash maps
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private final class ConnectionHandler extends ForwardingHandler {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = forward(method, args);
+            if (result instanceof Statement statement) {
+                // createStatement, prepareStatement or prepareCall; the latter two take the SQL first
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return wrap(method.getReturnType().asSubclass(Statement.class), new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler extends ForwardingHandler {
+
+        private final String sql;
+
+        StatementHandler(Statement target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result;
+            if (method.getName().startsWith("execute")) {
+                String executed = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                long start = System.nanoTime();
+                try {
+                    result = forward(method, args);
+                } finally {
+                    long nanos = System.nanoTime() - start;
+                    QueryInspector.recordStatement(executed, nanos);
+                    if (slowStatementNanos > 0 && nanos >= slowStatementNanos) {
+                        log.warn("Slow SQL statement ({} ms): {}", nanos / 1_000_000, executed);
+                    }
+                }
+            } else {
+                result = forward(method, args);
+            }
+            if (result instanceof ResultSet resultSet) {
+                return wrap(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler extends ForwardingHandler {
+
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            if (!method.getName().equals("next")) {
+                return forward(method, args);
+            }
+            // May wait for the next block of rows when a fetch size is set
+            long start = System.nanoTime();
+            Object result = forward(method, args);
+            QueryInspector.recordFetch(Boolean.TRUE.equals(result), System.nanoTime() - start);
+            return result;
+        }
+    }
+}
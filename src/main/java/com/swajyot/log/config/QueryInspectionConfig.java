@@ -0,0 +1,30 @@
+package com.swajyot.log.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes all JDBC access through QueryInspectingDataSource, so QueryInspector scopes (one per HTTP
+ * request, see QueryBudgetFilter) see every statement, whether issued by Hibernate, JdbcTemplate or Flyway.
+ */
+@Configuration
+public class QueryInspectionConfig {
+
+    @Bean
+    public static BeanPostProcessor queryInspectingDataSourcePostProcessor(
+            @Value("${app.query-budget.slow-statement-millis:500}") long slowStatementMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryInspectingDataSource)) {
+                    return new QueryInspectingDataSource(dataSource, slowStatementMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
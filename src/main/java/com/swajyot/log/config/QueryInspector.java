@@ -0,0 +1,140 @@
+package com.swajyot.log.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts the SQL statements, fetched rows and JDBC time of the work done on the current thread
+ * while a scope is open. Statements are seen at the JDBC level (see QueryInspectingDataSource),
+ * so Hibernate and JdbcTemplate queries are both counted; a JDBC batch counts as one statement.
+ *
+ * QueryBudgetFilter opens a scope for every HTTP request. Tests can open their own around a call:
+ * <pre>
+ * try (QueryInspector.Scope queries = QueryInspector.start()) {
+ *     mvc.perform(post("/api/inspection-forms/1/approve?reviewedBy=qa"));
+ *     queries.assertStatementsAtMost(4);
+ * }
+ * </pre>
+ * Scopes nest: when an inner scope closes, its counts are added to the enclosing one.
+ */
+public final class QueryInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryInspector() {
+    }
+
+    /**
+     * Start counting on this thread until the returned scope is closed
+     */
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record one executed statement. No-op when no scope is open.
+     */
+    static void recordStatement(String sql, long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+            scope.jdbcNanos += nanos;
+            scope.executions.merge(sql == null ? "?" : sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Record time spent fetching from a result set, and whether a row was fetched
+     */
+    static void recordFetch(boolean row, long nanos) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            if (row) {
+                scope.rowsFetched++;
+            }
+            scope.jdbcNanos += nanos;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private long statements;
+        private long rowsFetched;
+        private long jdbcNanos;
+        // Executions per distinct SQL string, in first-seen order
+        private final Map<String, Integer> executions = new LinkedHashMap<>();
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public long statements() {
+            return statements;
+        }
+
+        public long rowsFetched() {
+            return rowsFetched;
+        }
+
+        public Duration jdbcTime() {
+            return Duration.ofNanos(jdbcNanos);
+        }
+
+        /**
+         * How often each distinct SQL string ran
+         */
+        public Map<String, Integer> executions() {
+            return Map.copyOf(executions);
+        }
+
+        /**
+         * The statement that ran most often and how often, e.g. the per-row query of an N+1 pattern
+         */
+        public Optional<Map.Entry<String, Integer>> mostRepeated() {
+            return executions.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(e -> Map.entry(e.getKey(), e.getValue()));
+        }
+
+        /**
+         * @throws AssertionError listing the statements if more than the given number ran
+         */
+        public void assertStatementsAtMost(long max) {
+            if (statements > max) {
+                StringBuilder message = new StringBuilder("Expected at most " + max + " SQL statements but "
+                        + statements + " ran:");
+                executions.forEach((sql, count) -> message.append("\n  ").append(count).append("x ").append(sql));
+                throw new AssertionError(message.toString());
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    parent.statements += statements;
+                    parent.rowsFetched += rowsFetched;
+                    parent.jdbcNanos += jdbcNanos;
+                    executions.forEach((sql, count) -> parent.executions.merge(sql, count, Integer::sum));
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.swajyot.log.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Caffeine cache of versioned entities where a put never replaces an entry with an older version
+ * of the same entity. Writers put their result after commit, in whatever order their commits
+ * complete, so without the guard a slower writer could overwrite a newer form with its own.
+ *
+ * Loads through {@link #get(Object, java.util.concurrent.Callable)} are atomic per key: an eviction
+ * or put issued while a load is running waits for it, so a value read before a commit can't land
+ * in the cache after that commit's eviction.
+ */
+public class VersionGuardedCaffeineCache<V> extends CaffeineCache {
+
+    private final Class<V> type;
+    private final ToLongFunction<V> version;
+
+    public VersionGuardedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                       Class<V> type, ToLongFunction<V> version) {
+        super(name, cache, false);
+        this.type = type;
+        this.version = version;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (!type.isInstance(value)) {
+            super.put(key, value);
+            return;
+        }
+        getNativeCache().asMap().merge(key, value, (current, offered) ->
+                type.isInstance(current) && version.applyAsLong(type.cast(current)) >= version.applyAsLong(type.cast(offered))
+                        ? current : offered);
+    }
+}
@@ -0,0 +1,27 @@
+package com.swajyot.log.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.swajyot.log.model.CacheStatistics;
+import com.swajyot.log.service.CacheStatisticsService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * Hit, miss and eviction counts of the form and user caches
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatistics>> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -1,22 +1,58 @@
 package com.swajyot.log.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.swajyot.log.model.BatchTransitionResult;
+import com.swajyot.log.model.Characteristic;
+import com.swajyot.log.model.ImportResult;
+import com.swajyot.log.model.CursorPage;
 import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormEvent;
+import com.swajyot.log.model.InspectionFormStats;
+import com.swajyot.log.model.InspectionFormSummary;
+import com.swajyot.log.model.Lacquer;
+import com.swajyot.log.model.VersionedElement;
+import com.swajyot.log.repository.FormTextField;
+import com.swajyot.log.service.DuplicateElementIdException;
+import com.swajyot.log.service.FormTransitionException;
+import com.swajyot.log.service.FormVersionConflictException;
+import com.swajyot.log.service.InspectionFormArchiveService;
+import com.swajyot.log.service.InspectionFormChangeFeed;
+import com.swajyot.log.service.InspectionFormExportService;
+import com.swajyot.log.service.InspectionFormHistoryService;
+import com.swajyot.log.service.InspectionFormImportService;
+import com.swajyot.log.service.InspectionFormPdfCache;
+import com.swajyot.log.service.InspectionFormReportService;
+import com.swajyot.log.service.InspectionFormRollupService;
 import com.swajyot.log.service.InspectionFormPdfService;
 import com.swajyot.log.service.InspectionFormService;
+import com.swajyot.log.service.InspectionFormStatsService;
 
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequiredArgsConstructor
 @RestController
@@ -24,18 +60,68 @@ import org.springframework.web.bind.annotation.PathVariable;
 public class InspectionFormController {
 
     private final InspectionFormService inspectionFormService;
+    private final InspectionFormExportService exportService;
+    private final InspectionFormArchiveService archiveService;
+    private final InspectionFormReportService reportService;
+    private final InspectionFormStatsService statsService;
+    private final InspectionFormRollupService rollupService;
+    private final InspectionFormImportService importService;
+    private final InspectionFormHistoryService historyService;
+    private final InspectionFormChangeFeed changeFeed;
     
     @Autowired
     private InspectionFormPdfService pdfService;
+    
+    @Autowired
+    private InspectionFormPdfCache pdfCache;
 
     @GetMapping
     public ResponseEntity<List<InspectionForm>> getAllForms() {
         return ResponseEntity.ok(inspectionFormService.getAllForms());
     }
 
+    /**
+     * Single form, with its version as the ETag. Send that ETag back in If-Match on PUT, PATCH
+     * and the workflow endpoints to have the change rejected with 409 if someone else got there first.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<InspectionForm> getFormById(@PathVariable Long id) {
-        return ResponseEntity.ok(inspectionFormService.getFormById(id));
+    public ResponseEntity<InspectionForm> getFormById(@PathVariable Long id, WebRequest request) {
+        InspectionForm form = inspectionFormService.getFormById(id);
+        if (request.checkNotModified(versionTag(form))) {
+            return null;
+        }
+        return versioned(form);
+    }
+
+    /**
+     * Server-sent event stream of form changes ("change" events, see InspectionFormChange),
+     * optionally narrowed to statuses, a line and a shift. To resume after a disconnect, send the
+     * last received event id as Last-Event-ID (EventSource does this itself) or resumeToken; a
+     * "reset" event means changes were missed and the client should reload.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) String lineNo,
+            @RequestParam(required = false) String shift,
+            @RequestParam(required = false) String resumeToken,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Set<InspectionForm.FormStatus> statuses = EnumSet.noneOf(InspectionForm.FormStatus.class);
+        try {
+            if (status != null) {
+                for (String value : status) {
+                    statuses.add(InspectionForm.FormStatus.valueOf(value.trim().toUpperCase()));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(changeFeed.subscribe(new InspectionFormChangeFeed.Filter(statuses, lineNo, shift),
+                    lastEventId != null ? lastEventId : resumeToken));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 
     @GetMapping("/status/{status}")
@@ -67,35 +153,485 @@ public class InspectionFormController {
         return ResponseEntity.ok(inspectionFormService.getFormsByDateRange(startDate, endDate));
     }
 
+    /**
+     * Keyset-paginated summary listings. These return InspectionFormSummary rows without
+     * the JSONB payloads; pass the returned nextCursor as cursor to get the next page.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> getFormSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.getFormSummaries(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary/status/{status}")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> getFormSummariesByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            InspectionForm.FormStatus formStatus = Enum.valueOf(InspectionForm.FormStatus.class, status.toUpperCase());
+            return ResponseEntity.ok(inspectionFormService.getFormSummariesByStatus(formStatus, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary/submitter/{submitter}")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> getFormSummariesBySubmitter(
+            @PathVariable String submitter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.getFormSummariesBySubmitter(submitter, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary/reviewer/{reviewer}")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> getFormSummariesByReviewer(
+            @PathVariable String reviewer,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.getFormSummariesByReviewer(reviewer, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary/date-range")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> getFormSummariesByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.getFormSummariesByDateRange(startDate, endDate, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Searches inside the lacquer and characteristic lists, e.g. to trace every form that used
+     * a lacquer batch. Text criteria match exactly; results are paged like the summary listings.
+     */
+    @GetMapping("/search/lacquers")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> searchByLacquer(
+            @RequestParam(required = false) String batchNo,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiryFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate expiryTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.searchByLacquer(batchNo, name, expiryFrom, expiryTo, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search/characteristics")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> searchByCharacteristic(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String observation,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.searchByCharacteristic(name, observation, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Ranked fuzzy search over product, customer and variant (restrict with fields=product,customer,...).
+     * Tolerates typos and partial words; best matches come first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<InspectionFormSummary>> searchText(
+            @RequestParam String q,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            Set<FormTextField> textFields = EnumSet.noneOf(FormTextField.class);
+            if (fields != null) {
+                for (String field : fields) {
+                    textFields.add(Enum.valueOf(FormTextField.class, field.trim().toUpperCase()));
+                }
+            }
+            return ResponseEntity.ok(inspectionFormService.searchText(q, textFields, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Typeahead suggestions for the product, customer or variant search box
+     */
+    @GetMapping("/search/suggest/{field}")
+    public ResponseEntity<List<String>> suggestValues(
+            @PathVariable String field,
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            FormTextField textField = Enum.valueOf(FormTextField.class, field.toUpperCase());
+            return ResponseEntity.ok(inspectionFormService.suggestValues(textField, prefix, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Dashboard aggregates for forms inspected in the date range: status counts,
+     * per-day/shift/line/product breakdowns and submission-to-review turnaround.
+     * Turnaround percentiles are only computed when asked for, as they need the forms themselves.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<InspectionFormStats> getStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean percentiles) {
+        try {
+            return ResponseEntity.ok(statsService.getStats(startDate, endDate, percentiles));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Recompute the statistics rollups from the forms table
+     */
+    @PostMapping("/stats/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        return ResponseEntity.ok(Map.of("rollupRows", rollupService.rebuild()));
+    }
+
+    /**
+     * Streams forms as NDJSON (one JSON object per line) for bulk consumers.
+     * All filters are optional; use status and the date range for incremental pulls.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportForms(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        InspectionForm.FormStatus formStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                formStatus = Enum.valueOf(InspectionForm.FormStatus.class, status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        InspectionForm.FormStatus exportStatus = formStatus;
+        StreamingResponseBody body = out -> exportService.exportNdjson(out, exportStatus, startDate, endDate);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @PostMapping
     public ResponseEntity<InspectionForm> createForm(@RequestBody InspectionForm form) {
         return new ResponseEntity<>(inspectionFormService.createForm(form), HttpStatus.CREATED);
     }
 
+    /**
+     * Bulk create forms from a JSON array or NDJSON (one form per line), e.g. for migrating
+     * historical logs. Invalid records are reported by position and skipped; the rest are imported.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importForms(InputStream body) {
+        return ResponseEntity.ok(importService.importForms(body));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<InspectionForm> updateForm(@PathVariable Long id, @RequestBody InspectionForm form) {
-        return ResponseEntity.ok(inspectionFormService.updateForm(id, form));
+    public ResponseEntity<InspectionForm> updateForm(
+            @PathVariable Long id,
+            @RequestBody InspectionForm form,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedUpdate(id, () -> inspectionFormService.updateForm(id, form, parseIfMatch(ifMatch)));
+    }
+
+    /**
+     * Partial update using JSON Merge Patch: only the fields present in the body are changed.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<InspectionForm> patchForm(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedUpdate(id, () -> inspectionFormService.patchForm(id, patch, parseIfMatch(ifMatch)));
+    }
+
+    /**
+     * Element-level endpoints for the lacquer and characteristic lists. Each change is applied
+     * in the database without re-sending or rewriting the whole list. PATCH merges the supplied
+     * fields into the element; a missing form or element gives 404. Adding an element with an id
+     * the list already uses gives 409. Like the form endpoints they take the form's ETag in
+     * If-Match, answer 409 with the current ETag if the form has changed since, and return the
+     * form's new ETag.
+     */
+    @PostMapping("/{id}/lacquers")
+    public ResponseEntity<Lacquer> addLacquer(
+            @PathVariable Long id,
+            @RequestBody Lacquer lacquer,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedElementUpdate(id, () -> created(inspectionFormService.addLacquer(id, lacquer, parseIfMatch(ifMatch))));
+    }
+
+    @PatchMapping("/{id}/lacquers/{lacquerId}")
+    public ResponseEntity<Lacquer> patchLacquer(
+            @PathVariable Long id,
+            @PathVariable long lacquerId,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedElementUpdate(id, () -> versionedElement(
+                inspectionFormService.patchLacquer(id, lacquerId, patch, parseIfMatch(ifMatch))));
+    }
+
+    @DeleteMapping("/{id}/lacquers/{lacquerId}")
+    public ResponseEntity<Void> removeLacquer(
+            @PathVariable Long id,
+            @PathVariable long lacquerId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedElementUpdate(id, () -> removed(inspectionFormService.removeLacquer(id, lacquerId, parseIfMatch(ifMatch))));
+    }
+
+    @PostMapping("/{id}/characteristics")
+    public ResponseEntity<Characteristic> addCharacteristic(
+            @PathVariable Long id,
+            @RequestBody Characteristic characteristic,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedElementUpdate(id, () -> created(
+                inspectionFormService.addCharacteristic(id, characteristic, parseIfMatch(ifMatch))));
+    }
+
+    @PatchMapping("/{id}/characteristics/{charId}")
+    public ResponseEntity<Characteristic> patchCharacteristic(
+            @PathVariable Long id,
+            @PathVariable long charId,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedElementUpdate(id, () -> versionedElement(
+                inspectionFormService.patchCharacteristic(id, charId, patch, parseIfMatch(ifMatch))));
+    }
+
+    @DeleteMapping("/{id}/characteristics/{charId}")
+    public ResponseEntity<Void> removeCharacteristic(
+            @PathVariable Long id,
+            @PathVariable long charId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedElementUpdate(id, () -> removed(
+                inspectionFormService.removeCharacteristic(id, charId, parseIfMatch(ifMatch))));
     }
 
     @PostMapping("/{id}/submit")
-    public ResponseEntity<InspectionForm> submitForm(@PathVariable Long id, @RequestParam String submittedBy) {
-        return ResponseEntity.ok(inspectionFormService.submitForm(id, submittedBy));
+    public ResponseEntity<InspectionForm> submitForm(
+            @PathVariable Long id,
+            @RequestParam String submittedBy,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedUpdate(id, () -> inspectionFormService.submitForm(id, submittedBy, parseIfMatch(ifMatch)));
     }
 
     @PostMapping("/{id}/approve")
     public ResponseEntity<InspectionForm> approveForm(
             @PathVariable Long id,
             @RequestParam String reviewedBy,
-            @RequestParam(required = false) String comments) {
-        return ResponseEntity.ok(inspectionFormService.approveForm(id, reviewedBy, comments));
+            @RequestParam(required = false) String comments,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedUpdate(id, () -> inspectionFormService.approveForm(id, reviewedBy, comments, parseIfMatch(ifMatch)));
     }
 
     @PostMapping("/{id}/reject")
     public ResponseEntity<InspectionForm> rejectForm(
             @PathVariable Long id,
             @RequestParam String reviewedBy,
+            @RequestParam(required = false) String comments,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return versionedUpdate(id, () -> inspectionFormService.rejectForm(id, reviewedBy, comments, parseIfMatch(ifMatch)));
+    }
+
+    /**
+     * Run a change to one form. A change based on an out-of-date version, either per If-Match
+     * or caught by the version check on write, and a workflow action the form's current state
+     * doesn't allow both answer 409 with the current form and its ETag.
+     */
+    private ResponseEntity<InspectionForm> versionedUpdate(Long id, Supplier<InspectionForm> change) {
+        return versionedUpdate(id, () -> versioned(change.get()), this::conflict);
+    }
+
+    /**
+     * Run a change to one element of a form. As for the form endpoints, but a 409 only carries the
+     * current ETag, as the response body is an element; an element id that is already used also gives 409.
+     */
+    private <T> ResponseEntity<T> versionedElementUpdate(Long id, Supplier<ResponseEntity<T>> change) {
+        return versionedUpdate(id, () -> {
+            try {
+                return change.get();
+            } catch (DuplicateElementIdException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+        }, current -> ResponseEntity.status(HttpStatus.CONFLICT).eTag(versionTag(current)).build());
+    }
+
+    private <T> ResponseEntity<T> versionedUpdate(Long id, Supplier<ResponseEntity<T>> change,
+                                                  Function<InspectionForm, ResponseEntity<T>> conflict) {
+        try {
+            return change.get();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (FormVersionConflictException e) {
+            return conflict.apply(e.getCurrentForm());
+        } catch (FormTransitionException | OptimisticLockingFailureException e) {
+            return conflict.apply(inspectionFormService.getFormById(id));
+        }
+    }
+
+    private static <T> ResponseEntity<T> created(Optional<VersionedElement<T>> added) {
+        return added
+                .map(element -> ResponseEntity.status(HttpStatus.CREATED).eTag(versionTag(element.getVersion())).body(element.getElement()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static <T> ResponseEntity<T> versionedElement(Optional<VersionedElement<T>> changed) {
+        return changed
+                .map(element -> ResponseEntity.ok().eTag(versionTag(element.getVersion())).body(element.getElement()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<Void> removed(Optional<Long> version) {
+        return version
+                .map(v -> ResponseEntity.noContent().eTag(versionTag(v)).<Void>build())
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<InspectionForm> conflict(InspectionForm current) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).eTag(versionTag(current)).body(current);
+    }
+
+    private ResponseEntity<InspectionForm> versioned(InspectionForm form) {
+        return ResponseEntity.ok().eTag(versionTag(form)).body(form);
+    }
+
+    private static String versionTag(InspectionForm form) {
+        return versionTag(form.getVersion());
+    }
+
+    private static String versionTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version named by an If-Match header, or null if there is none or it is "*".
+     * @throws IllegalArgumentException if the header is not a single form version tag
+     */
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match: " + ifMatch);
+        }
+    }
+
+    /**
+     * Batch workflow actions over a JSON array of form ids, applied in one transaction.
+     * Submit applies to DRAFT and REJECTED forms, approve and reject to SUBMITTED forms;
+     * other forms are reported as SKIPPED with their current status.
+     */
+    @PostMapping("/batch/submit")
+    public ResponseEntity<BatchTransitionResult> submitForms(
+            @RequestBody List<Long> ids,
+            @RequestParam String submittedBy) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.submitForms(ids, submittedBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/batch/approve")
+    public ResponseEntity<BatchTransitionResult> approveForms(
+            @RequestBody List<Long> ids,
+            @RequestParam String reviewedBy,
+            @RequestParam(required = false) String comments) {
+        try {
+            return ResponseEntity.ok(inspectionFormService.approveForms(ids, reviewedBy, comments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/batch/reject")
+    public ResponseEntity<BatchTransitionResult> rejectForms(
+            @RequestBody List<Long> ids,
+            @RequestParam String reviewedBy,
             @RequestParam String comments) {
-        return ResponseEntity.ok(inspectionFormService.rejectForm(id, reviewedBy, comments));
+        try {
+            return ResponseEntity.ok(inspectionFormService.rejectForms(ids, reviewedBy, comments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Change history of a form, newest first, with the changed fields of each event.
+     * Changes are written in the background, so the latest ones may take a moment to appear.
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<CursorPage<InspectionFormEvent>> getFormHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(historyService.getFormHistory(id, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * The form as it was at the given time, rebuilt from its history; 404 if it didn't exist then
+     */
+    @GetMapping("/{id}/history/at")
+    public ResponseEntity<InspectionForm> getFormAt(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime time) {
+        return ResponseEntity.of(historyService.getFormAt(id, time));
+    }
+
+    /**
+     * Changes made by one user across all forms, newest first. Edits are attributed through the
+     * X-User request header, workflow actions to their submitter or reviewer.
+     */
+    @GetMapping("/history/user/{actor}")
+    public ResponseEntity<CursorPage<InspectionFormEvent>> getUserHistory(
+            @PathVariable String actor,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(historyService.getUserHistory(actor, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -105,24 +641,39 @@ public class InspectionFormController {
     }
     
     /**
-     * Endpoint to generate a PDF of the inspection form
+     * Endpoint to generate a PDF of the inspection form.
+     * Sends an ETag (content hash) and Last-Modified, and answers 304 to matching conditional requests.
      * @param id The ID of the inspection form
      * @return The PDF as a byte array
      */
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> generatePdf(@PathVariable Long id) {
+    public ResponseEntity<byte[]> generatePdf(@PathVariable Long id, WebRequest request) {
         try {
             // Get the form by ID
             InspectionForm form = inspectionFormService.getFormById(id);
             
-            // Generate the PDF
-            byte[] pdfBytes = pdfService.generatePdf(form);
+            String contentVersion = pdfCache.contentVersion(form);
+            String eTag = "\"" + contentVersion + "\"";
+            long lastModified = form.getUpdatedAt() != null
+                    ? form.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : -1;
+            if (request.checkNotModified(eTag, lastModified)) {
+                // 304 status and validators have already been set
+                return null;
+            }
+            
+            // Generate the PDF, or reuse it if this version was rendered before
+            byte[] pdfBytes = pdfService.getOrGeneratePdf(form, contentVersion);
             
             // Set up response headers
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", "inspection_form_" + form.getDocumentNo() + ".pdf");
             headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+            headers.setETag(eTag);
+            if (lastModified >= 0) {
+                headers.setLastModified(lastModified);
+            }
             
             return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
         } catch (Exception e) {
@@ -130,4 +681,93 @@ public class InspectionFormController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+    
+    /**
+     * Streaming variant of the PDF endpoint for large forms.
+     * On a cache miss the document is written to the client while iText lays it out,
+     * instead of being buffered in memory first.
+     * @param id The ID of the inspection form
+     * @return The PDF as a stream
+     */
+    @GetMapping("/{id}/pdf/stream")
+    public ResponseEntity<StreamingResponseBody> streamPdf(@PathVariable Long id, WebRequest request) {
+        InspectionForm form = inspectionFormService.getFormById(id);
+        
+        String contentVersion = pdfCache.contentVersion(form);
+        String eTag = "\"" + contentVersion + "\"";
+        long lastModified = form.getUpdatedAt() != null
+                ? form.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        if (request.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "inspection_form_" + form.getDocumentNo() + ".pdf");
+        headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+        headers.setETag(eTag);
+        if (lastModified >= 0) {
+            headers.setLastModified(lastModified);
+        }
+        
+        byte[] cached = pdfCache.get(form.getId(), contentVersion);
+        StreamingResponseBody body = cached != null
+                ? out -> out.write(cached)
+                : out -> pdfService.generatePdf(form, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * Endpoint to download many PDFs as one ZIP archive.
+     * Takes explicit ids, or otherwise selects forms by status and inspection date range.
+     * The archive ends with a manifest.json entry reporting any forms that failed to render.
+     */
+    @GetMapping("/pdf/archive")
+    public ResponseEntity<StreamingResponseBody> generatePdfArchive(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        List<Long> formIds;
+        try {
+            InspectionForm.FormStatus formStatus = null;
+            if (status != null && !status.isEmpty()) {
+                formStatus = Enum.valueOf(InspectionForm.FormStatus.class, status.toUpperCase());
+            }
+            formIds = archiveService.resolveFormIds(ids, formStatus, startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "inspection_forms.zip");
+        
+        StreamingResponseBody body = out -> archiveService.writeArchive(out, formIds);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * Endpoint to generate one consolidated PDF for all forms of a shift.
+     * Shift and line are optional; without them the report covers the whole day.
+     */
+    @GetMapping("/reports/shift")
+    public ResponseEntity<StreamingResponseBody> generateShiftReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String shift,
+            @RequestParam(required = false) String lineNo) {
+        List<InspectionFormSummary> summaries = reportService.getShiftForms(date, shift, lineNo);
+        if (summaries.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "shift_report_" + date
+                + (shift != null ? "_" + shift : "") + (lineNo != null ? "_" + lineNo : "") + ".pdf");
+        
+        StreamingResponseBody body = out -> reportService.writeShiftReport(out, date, shift, lineNo, summaries);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,37 @@
+package com.swajyot.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch submit, approve or reject, with one entry per requested id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransitionResult {
+    private int updated;
+    private int skipped;
+    private int notFound;
+    private List<Item> results = new ArrayList<>();
+
+    public enum Outcome {
+        UPDATED,
+        // The form was not in a state the action applies to; status holds its current state
+        SKIPPED,
+        NOT_FOUND
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private Outcome outcome;
+        private InspectionForm.FormStatus status;
+    }
+}
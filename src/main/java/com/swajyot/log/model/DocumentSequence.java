@@ -0,0 +1,27 @@
+package com.swajyot.log.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counter row holding the last document number sequence handed out for a prefix (e.g. AGI-APR-25-).
+ */
+@Entity
+@Table(name = "document_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String prefix;
+
+    @Column(nullable = false)
+    private Long lastValue;
+}
@@ -0,0 +1,51 @@
+package com.swajyot.log.model;
+
+import com.swajyot.log.model.InspectionForm.FormStatus;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Workflow transitions of an inspection form. Each transition may only be applied to a form
+ * in one of its source states and moves it to its target state:
+ * <pre>
+ *   DRAFT, REJECTED --SUBMIT--> SUBMITTED --APPROVE--> APPROVED
+ *                               SUBMITTED --REJECT---> REJECTED
+ * </pre>
+ */
+@Getter
+public enum FormTransition {
+
+    SUBMIT(Set.of(FormStatus.DRAFT, FormStatus.REJECTED), FormStatus.SUBMITTED),
+    APPROVE(Set.of(FormStatus.SUBMITTED), FormStatus.APPROVED),
+    REJECT(Set.of(FormStatus.SUBMITTED), FormStatus.REJECTED);
+
+    private final Set<FormStatus> sources;
+    private final FormStatus target;
+
+    FormTransition(Set<FormStatus> sources, FormStatus target) {
+        this.sources = sources;
+        this.target = target;
+    }
+
+    public boolean isAllowedFrom(FormStatus status) {
+        return status != null && sources.contains(status);
+    }
+
+    /**
+     * Whether the transition records a review (reviewer, review time and comments) rather than a submission
+     */
+    public boolean isReview() {
+        return this != SUBMIT;
+    }
+
+    /**
+     * Every transition needs an actor. Comments are optional, on rejections too.
+     * @throws IllegalArgumentException if the actor is missing
+     */
+    public void checkActor(String actor) {
+        if (actor == null || actor.isBlank()) {
+            throw new IllegalArgumentException(name() + " requires " + (isReview() ? "a reviewer" : "a submitter"));
+        }
+    }
+}
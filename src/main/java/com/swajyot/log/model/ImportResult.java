@@ -0,0 +1,35 @@
+package com.swajyot.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk form import. Records are numbered from 0 in input order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    private int received;
+    private int imported;
+    private int failed;
+    private List<RecordError> errors = new ArrayList<>();
+
+    public void addError(int index, String documentNo, String message) {
+        failed++;
+        errors.add(new RecordError(index, documentNo, message));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private int index;
+        private String documentNo;
+        private String message;
+    }
+}
@@ -1,6 +1,7 @@
 package com.swajyot.log.model;
 
 import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Type;
 
 import jakarta.persistence.*;
@@ -13,13 +14,16 @@ import java.util.List;
 
 @Entity
 @Table(name = "inspection_forms")
+@DynamicUpdate // UPDATE statements only include changed columns, so small edits don't rewrite the JSONB lists
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class InspectionForm {
 
+    // Sequence ids (allocated 50 at a time) let Hibernate batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inspection_forms_seq")
+    @SequenceGenerator(name = "inspection_forms_seq", sequenceName = "inspection_forms_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false,unique = true)
@@ -86,6 +90,19 @@ public class InspectionForm {
     
     private String comments;
     
+    private LocalDateTime updatedAt;
+
+    // Incremented on every change, including the native element and batch workflow updates.
+    // Exposed as the ETag of the form so clients can make conditional updates.
+    @Version
+    private Long version;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
     public enum FormStatus {
         DRAFT, SUBMITTED, APPROVED, REJECTED
     }
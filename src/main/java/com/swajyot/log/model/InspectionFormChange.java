@@ -0,0 +1,29 @@
+package com.swajyot.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact notice of a change to a form, as sent on the change feed. Clients refetch the form
+ * (or its summary) if they need more than this. The token identifies the notice's position in
+ * the feed and is the resume token for reconnecting.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InspectionFormChange {
+    private String token;
+    private Long formId;
+    private InspectionFormEvent.EventType type;
+    private InspectionForm.FormStatus previousStatus;
+    // Null once the form has been deleted
+    private InspectionForm.FormStatus status;
+    private String lineNo;
+    private String shift;
+    private Long version;
+    private String actor;
+    private LocalDateTime occurredAt;
+}
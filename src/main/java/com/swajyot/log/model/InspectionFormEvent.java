@@ -0,0 +1,74 @@
+package com.swajyot.log.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Type;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One entry of a form's append-only history: who changed what, and when.
+ */
+@Entity
+@Table(name = "inspection_form_events")
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InspectionFormEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inspection_form_events_seq")
+    @SequenceGenerator(name = "inspection_form_events_seq", sequenceName = "inspection_form_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long formId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EventType type;
+
+    private String actor;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Form version after the change, when known
+    private Long version;
+
+    @Type(JsonBinaryType.class)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private List<FieldChange> changes;
+
+    public enum EventType {
+        CREATE, UPDATE, SUBMIT, APPROVE, REJECT, DELETE
+    }
+
+    /**
+     * The old and new value of one field, in the REST API's JSON format. Changes to a single
+     * lacquer or characteristic also carry its elementId; their new value is the whole element,
+     * or null if it was removed.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class FieldChange {
+        private String field;
+        private Long elementId;
+        private JsonNode from;
+        private JsonNode to;
+
+        public FieldChange(String field, JsonNode from, JsonNode to) {
+            this(field, null, from, to);
+        }
+    }
+}
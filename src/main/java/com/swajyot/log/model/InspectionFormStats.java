@@ -0,0 +1,57 @@
+package com.swajyot.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard aggregates over the forms inspected in a date range.
+ * All counts are computed in the database; no forms are loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InspectionFormStats {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long total;
+    private Map<InspectionForm.FormStatus, Long> statusCounts = new EnumMap<>(InspectionForm.FormStatus.class);
+    private List<Breakdown> byDay = new ArrayList<>();
+    private List<Breakdown> byShift = new ArrayList<>();
+    private List<Breakdown> byLine = new ArrayList<>();
+    private List<Breakdown> byProduct = new ArrayList<>();
+    private Turnaround turnaround;
+
+    /**
+     * Form counts for one day, shift, line or product
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Breakdown {
+        private String key;
+        private long total;
+        private Map<InspectionForm.FormStatus, Long> statusCounts = new EnumMap<>(InspectionForm.FormStatus.class);
+    }
+
+    /**
+     * Time from submission to review (approval or rejection) of reviewed forms, in minutes
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Turnaround {
+        private long count;
+        private Double averageMinutes;
+        private Double p50Minutes;
+        private Double p90Minutes;
+        private Double p95Minutes;
+        private Double maxMinutes;
+    }
+}
@@ -0,0 +1,31 @@
+package com.swajyot.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of an inspection form used by list screens.
+ * Leaves out the JSONB lacquer/characteristic payloads and the signatures.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InspectionFormSummary {
+    private Long id;
+    private String documentNo;
+    private LocalDate inspectionDate;
+    private String product;
+    private String variant;
+    private String shift;
+    private String lineNo;
+    private String customer;
+    private InspectionForm.FormStatus status;
+    private String submittedBy;
+    private LocalDateTime submittedAt;
+    private String reviewedBy;
+    private LocalDateTime reviewedAt;
+}
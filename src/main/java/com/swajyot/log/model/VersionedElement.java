@@ -0,0 +1,17 @@
+package com.swajyot.log.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A lacquer or characteristic as stored by an element-level change, with the version of the
+ * form after that change, which is the form's new ETag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionedElement<T> {
+    private T element;
+    private long version;
+}
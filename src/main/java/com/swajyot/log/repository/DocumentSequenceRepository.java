@@ -0,0 +1,37 @@
+package com.swajyot.log.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.swajyot.log.model.DocumentSequence;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DocumentSequence s WHERE s.prefix = :prefix")
+    Optional<DocumentSequence> findForUpdate(@Param("prefix") String prefix);
+
+    @Modifying
+    @Query(value = "INSERT INTO document_sequences (prefix, last_value) VALUES (:prefix, :lastValue) "
+            + "ON CONFLICT (prefix) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("prefix") String prefix, @Param("lastValue") long lastValue);
+
+    /**
+     * Move a counter up to at least the given value. Only locks the row if it actually moves.
+     * @return 0 if the counter is already there or doesn't exist
+     */
+    @Modifying
+    @Query(value = "UPDATE document_sequences SET last_value = GREATEST(last_value, :lastValue) "
+            + "WHERE prefix = :prefix AND last_value < :lastValue", nativeQuery = true)
+    int advanceTo(@Param("prefix") String prefix, @Param("lastValue") long lastValue);
+
+    boolean existsByPrefix(String prefix);
+}
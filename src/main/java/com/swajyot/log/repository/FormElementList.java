@@ -0,0 +1,19 @@
+package com.swajyot.log.repository;
+
+/**
+ * The JSONB list columns of inspection_forms that support element-level updates.
+ */
+public enum FormElementList {
+    LACQUERS("lacquers"),
+    CHARACTERISTICS("characteristics");
+
+    private final String column;
+
+    FormElementList(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+}
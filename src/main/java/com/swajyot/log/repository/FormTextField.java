@@ -0,0 +1,20 @@
+package com.swajyot.log.repository;
+
+/**
+ * The free-text columns of inspection_forms covered by the trigram search indexes.
+ */
+public enum FormTextField {
+    PRODUCT("product"),
+    CUSTOMER("customer"),
+    VARIANT("variant");
+
+    private final String column;
+
+    FormTextField(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+}
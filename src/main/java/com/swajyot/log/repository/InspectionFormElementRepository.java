@@ -0,0 +1,64 @@
+package com.swajyot.log.repository;
+
+import com.swajyot.log.model.InspectionForm;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Element-level changes to and searches over the JSONB lists of a form, applied inside PostgreSQL
+ * so the rest of the form is neither loaded nor re-serialized. Elements are matched on their "id" field.
+ * Element JSON must be in the stored format (see ObjectMapperWrapper).
+ * Changes given an expected version only apply if the form is still at that version; null skips the check.
+ */
+public interface InspectionFormElementRepository {
+
+    /**
+     * Append an element, assigning the next free id if the element has none. An element whose id
+     * is already used in the list is not appended.
+     * @return The stored element as "after", or null if the form does not exist, is not at the
+     * expected version or the id is taken
+     */
+    ElementChange appendElement(Long formId, FormElementList list, String elementJson, Long expectedVersion,
+                                LocalDateTime updatedAt);
+
+    /**
+     * Merge the given fields into the element with the given id
+     * @return The element before and after, or null if the form or element does not exist or the
+     * form is not at the expected version
+     */
+    ElementChange mergeElement(Long formId, FormElementList list, long elementId, String patchJson,
+                               Long expectedVersion, LocalDateTime updatedAt);
+
+    /**
+     * Remove the element with the given id
+     * @return The removed element as "before", or null if the form or element does not exist or the
+     * form is not at the expected version
+     */
+    ElementChange removeElement(Long formId, FormElementList list, long elementId, Long expectedVersion,
+                                LocalDateTime updatedAt);
+
+    /**
+     * Ids of forms with a lacquer containing all fields of the given element and, when bounds are
+     * given, an expiry date inside them. Uses the GIN index on lacquers when an element is given.
+     * @return At most limit ids below afterId, highest first
+     */
+    List<Long> findIdsByLacquer(String elementJson, LocalDate expiryFrom, LocalDate expiryTo, long afterId, int limit);
+
+    /**
+     * Ids of forms with a characteristic containing all fields of the given element,
+     * found through the GIN index on characteristics
+     * @return At most limit ids below afterId, highest first
+     */
+    List<Long> findIdsByCharacteristic(String elementJson, long afterId, int limit);
+
+    /**
+     * An element as JSON before and after a change (before is null for an append, after for a
+     * removal), with the form's status, line and shift, which element changes leave as they are,
+     * and the form's version after the change
+     */
+    record ElementChange(String before, String after, InspectionForm.FormStatus status, String lineNo, String shift,
+                         long version) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.swajyot.log.repository;
+
+import com.swajyot.log.model.InspectionForm;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class InspectionFormElementRepositoryImpl implements InspectionFormElementRepository {
+
+    private static final String APPEND_SQL = """
+            UPDATE inspection_forms f
+            SET {col} = COALESCE(f.{col}, '[]'::jsonb) || jsonb_build_array(
+                    CASE WHEN jsonb_typeof(CAST(:element AS jsonb) -> 'id') = 'number'
+                         THEN CAST(:element AS jsonb)
+                         ELSE CAST(:element AS jsonb) || jsonb_build_object('id',
+                              (SELECT COALESCE(MAX((e ->> 'id')::bigint), 0) + 1
+                               FROM jsonb_array_elements(COALESCE(f.{col}, '[]'::jsonb)) e
+                               WHERE jsonb_typeof(e -> 'id') = 'number'))
+                    END),
+                updated_at = :updatedAt,
+                version = f.version + 1
+            WHERE f.id = :formId
+              AND (CAST(:expectedVersion AS bigint) IS NULL OR f.version = :expectedVersion)
+              AND (jsonb_typeof(CAST(:element AS jsonb) -> 'id') IS DISTINCT FROM 'number'
+                   OR NOT COALESCE(f.{col}, '[]'::jsonb) @> jsonb_build_array(jsonb_build_object('id', CAST(:element AS jsonb) -> 'id')))
+            RETURNING NULL AS before, (f.{col} -> -1)::text AS after, f.status, f.line_no, f.shift, f.version
+            """;
+
+    // The form row is locked first so the element returned as "before" is the one actually replaced
+    private static final String LOCKED_ELEMENT_CTE = """
+            WITH locked AS (
+                SELECT f.id, (SELECT e FROM jsonb_array_elements(f.{col}) e WHERE e ->> 'id' = :elementId LIMIT 1) AS element
+                FROM inspection_forms f
+                WHERE f.id = :formId AND f.{col} @> CAST(:match AS jsonb)
+                  AND (CAST(:expectedVersion AS bigint) IS NULL OR f.version = :expectedVersion)
+                FOR UPDATE
+            )
+            """;
+
+    private static final String MERGE_SQL = LOCKED_ELEMENT_CTE + """
+            UPDATE inspection_forms f
+            SET {col} = (SELECT jsonb_agg(CASE WHEN t.elem ->> 'id' = :elementId
+                                               THEN t.elem || CAST(:patch AS jsonb) || jsonb_build_object('id', t.elem -> 'id')
+                                               ELSE t.elem END ORDER BY t.ord)
+                         FROM jsonb_array_elements(f.{col}) WITH ORDINALITY AS t(elem, ord)),
+                updated_at = :updatedAt,
+                version = f.version + 1
+            FROM locked l
+            WHERE f.id = l.id
+            RETURNING l.element::text AS before,
+                      (SELECT e::text FROM jsonb_array_elements(f.{col}) e WHERE e ->> 'id' = :elementId LIMIT 1) AS after,
+                      f.status, f.line_no, f.shift, f.version
+            """;
+
+    private static final String REMOVE_SQL = LOCKED_ELEMENT_CTE + """
+            UPDATE inspection_forms f
+            SET {col} = COALESCE((SELECT jsonb_agg(t.elem ORDER BY t.ord)
+                                  FROM jsonb_array_elements(f.{col}) WITH ORDINALITY AS t(elem, ord)
+                                  WHERE t.elem ->> 'id' IS DISTINCT FROM :elementId), '[]'::jsonb),
+                updated_at = :updatedAt,
+                version = f.version + 1
+            FROM locked l
+            WHERE f.id = l.id
+            RETURNING l.element::text AS before, NULL AS after, f.status, f.line_no, f.shift, f.version
+            """;
+
+    // Expiry dates are stored as [year, month, day] arrays; ISO strings are accepted as well
+    private static final String EXPIRY_DATE_SQL = """
+            CASE jsonb_typeof(e -> 'expiryDate')
+                WHEN 'array' THEN make_date(CAST(e -> 'expiryDate' ->> 0 AS int),
+                                            CAST(e -> 'expiryDate' ->> 1 AS int),
+                                            CAST(e -> 'expiryDate' ->> 2 AS int))
+                WHEN 'string' THEN CAST(e ->> 'expiryDate' AS date)
+            END""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public ElementChange appendElement(Long formId, FormElementList list, String elementJson, Long expectedVersion,
+                                       LocalDateTime updatedAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("formId", formId)
+                .addValue("element", elementJson)
+                .addValue("expectedVersion", expectedVersion, Types.BIGINT)
+                .addValue("updatedAt", updatedAt);
+        return change(sql(APPEND_SQL, list), params);
+    }
+
+    @Override
+    public ElementChange mergeElement(Long formId, FormElementList list, long elementId, String patchJson,
+                                      Long expectedVersion, LocalDateTime updatedAt) {
+        MapSqlParameterSource params = elementParams(formId, elementId, expectedVersion, updatedAt)
+                .addValue("patch", patchJson);
+        return change(sql(MERGE_SQL, list), params);
+    }
+
+    @Override
+    public ElementChange removeElement(Long formId, FormElementList list, long elementId, Long expectedVersion,
+                                       LocalDateTime updatedAt) {
+        return change(sql(REMOVE_SQL, list), elementParams(formId, elementId, expectedVersion, updatedAt));
+    }
+
+    private ElementChange change(String sql, MapSqlParameterSource params) {
+        List<ElementChange> rows = jdbcTemplate.query(sql, params,
+                (rs, rowNum) -> new ElementChange(rs.getString("before"), rs.getString("after"),
+                        InspectionForm.FormStatus.valueOf(rs.getString("status")),
+                        rs.getString("line_no"), rs.getString("shift"), rs.getLong("version")));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public List<Long> findIdsByLacquer(String elementJson, LocalDate expiryFrom, LocalDate expiryTo, long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        StringBuilder sql = new StringBuilder("SELECT f.id FROM inspection_forms f WHERE f.id < :afterId");
+        if (elementJson != null) {
+            sql.append(" AND f.lacquers @> CAST(:match AS jsonb)");
+            params.addValue("match", "[" + elementJson + "]");
+        }
+        if (expiryFrom != null || expiryTo != null) {
+            // The date window has to hold for the same lacquer that matched the other fields
+            sql.append(" AND EXISTS (SELECT 1 FROM jsonb_array_elements(f.lacquers) e WHERE TRUE");
+            if (elementJson != null) {
+                sql.append(" AND e @> CAST(:element AS jsonb)");
+                params.addValue("element", elementJson);
+            }
+            if (expiryFrom != null) {
+                sql.append(" AND ").append(EXPIRY_DATE_SQL).append(" >= :expiryFrom");
+                params.addValue("expiryFrom", expiryFrom);
+            }
+            if (expiryTo != null) {
+                sql.append(" AND ").append(EXPIRY_DATE_SQL).append(" <= :expiryTo");
+                params.addValue("expiryTo", expiryTo);
+            }
+            sql.append(")");
+        }
+        sql.append(" ORDER BY f.id DESC LIMIT :limit");
+        return jdbcTemplate.queryForList(sql.toString(), params, Long.class);
+    }
+
+    @Override
+    public List<Long> findIdsByCharacteristic(String elementJson, long afterId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("match", "[" + elementJson + "]")
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList("SELECT f.id FROM inspection_forms f "
+                + "WHERE f.characteristics @> CAST(:match AS jsonb) AND f.id < :afterId "
+                + "ORDER BY f.id DESC LIMIT :limit", params, Long.class);
+    }
+
+    private MapSqlParameterSource elementParams(Long formId, long elementId, Long expectedVersion, LocalDateTime updatedAt) {
+        return new MapSqlParameterSource()
+                .addValue("formId", formId)
+                .addValue("elementId", String.valueOf(elementId))
+                // Containment check lets the form row be skipped when no element has this id
+                .addValue("match", "[{\"id\": " + elementId + "}]")
+                .addValue("expectedVersion", expectedVersion, Types.BIGINT)
+                .addValue("updatedAt", updatedAt);
+    }
+
+    private String sql(String template, FormElementList list) {
+        return template.replace("{col}", list.getColumn());
+    }
+}
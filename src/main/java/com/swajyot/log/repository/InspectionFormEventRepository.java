@@ -0,0 +1,32 @@
+package com.swajyot.log.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.swajyot.log.model.InspectionFormEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InspectionFormEventRepository extends JpaRepository<InspectionFormEvent, Long> {
+
+    // Keyset-paginated history listings, newest first
+
+    @Query("SELECT e FROM InspectionFormEvent e WHERE e.formId = :formId AND e.id < :afterId ORDER BY e.id DESC")
+    List<InspectionFormEvent> findByFormId(@Param("formId") Long formId, @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    @Query("SELECT e FROM InspectionFormEvent e WHERE e.actor = :actor AND e.id < :afterId ORDER BY e.id DESC")
+    List<InspectionFormEvent> findByActor(@Param("actor") String actor, @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    /**
+     * A form's events up to and including the given time, oldest first, for replaying its state
+     */
+    @Query("SELECT e FROM InspectionFormEvent e WHERE e.formId = :formId AND e.occurredAt <= :at ORDER BY e.id")
+    List<InspectionFormEvent> findReplayEvents(@Param("formId") Long formId, @Param("at") LocalDateTime at);
+}
@@ -1,32 +1,131 @@
 package com.swajyot.log.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormSummary;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface InspectionFormRepository extends JpaRepository<InspectionForm, Long> {
+public interface InspectionFormRepository extends JpaRepository<InspectionForm, Long>, InspectionFormElementRepository,
+        InspectionFormTextSearchRepository, InspectionFormStatsRepository, InspectionFormWorkflowRepository {
+
+    String SUMMARY_SELECT = "SELECT new com.swajyot.log.model.InspectionFormSummary("
+            + "f.id, f.documentNo, f.inspectionDate, f.product, f.variant, f.shift, f.lineNo, f.customer, "
+            + "f.status, f.submittedBy, f.submittedAt, f.reviewedBy, f.reviewedAt) FROM InspectionForm f ";
 
     List<InspectionForm> findByStatus(InspectionForm.FormStatus status);
-    
+
+    @Query("SELECT f.id FROM InspectionForm f WHERE f.status = :status ORDER BY f.id")
+    List<Long> findIdsByStatus(@Param("status") InspectionForm.FormStatus status);
+
     List<InspectionForm> findBySubmittedBy(String submittedBy);
-    
+
     List<InspectionForm> findByReviewedBy(String reviewedBy);
-    
+
     @Query("SELECT f FROM InspectionForm f WHERE f.documentNo = :documentNo")
     InspectionForm findByDocumentNo(@Param("documentNo") String documentNo);
-    
-    List<InspectionForm> findByProductContainingIgnoreCase(String product);
-    
+
     List<InspectionForm> findByVariant(String variant);
-    
+
     List<InspectionForm> findByInspectionDateBetween(LocalDate startDate, LocalDate endDate);
 
+    @Query("SELECT f.id FROM InspectionForm f WHERE f.inspectionDate BETWEEN :startDate AND :endDate ORDER BY f.id")
+    List<Long> findIdsByInspectionDateBetween(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
     List<InspectionForm> findByDocumentNoStartingWith(String documentNoPrefix);
+
+    /**
+     * Highest numeric suffix among document numbers of the form {prefix}{n}, or null if there are none.
+     * Only used once per prefix to seed the document number counter from existing data.
+     */
+    @Query(value = "SELECT MAX(CAST(SUBSTRING(document_no FROM LENGTH(:prefix) + 1) AS BIGINT)) "
+            + "FROM inspection_forms WHERE document_no LIKE CONCAT(:prefix, '%') "
+            + "AND SUBSTRING(document_no FROM LENGTH(:prefix) + 1) ~ '^[0-9]+$'", nativeQuery = true)
+    Long findMaxDocumentSequence(@Param("prefix") String prefix);
+
+    // Keyset-paginated summary listings, newest first. The page size comes from the Pageable;
+    // callers pass the last id (and date) of the previous page instead of an offset.
+
+    @Query(SUMMARY_SELECT + "WHERE f.id < :afterId ORDER BY f.id DESC")
+    List<InspectionFormSummary> findSummaries(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE f.status = :status AND f.id < :afterId ORDER BY f.id DESC")
+    List<InspectionFormSummary> findSummariesByStatus(@Param("status") InspectionForm.FormStatus status,
+                                                      @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE f.submittedBy = :submittedBy AND f.id < :afterId ORDER BY f.id DESC")
+    List<InspectionFormSummary> findSummariesBySubmittedBy(@Param("submittedBy") String submittedBy,
+                                                           @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE f.reviewedBy = :reviewedBy AND f.id < :afterId ORDER BY f.id DESC")
+    List<InspectionFormSummary> findSummariesByReviewedBy(@Param("reviewedBy") String reviewedBy,
+                                                          @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE f.inspectionDate BETWEEN :startDate AND :endDate "
+            + "AND (f.inspectionDate < :afterDate OR (f.inspectionDate = :afterDate AND f.id < :afterId)) "
+            + "ORDER BY f.inspectionDate DESC, f.id DESC")
+    List<InspectionFormSummary> findSummariesByInspectionDateBetween(@Param("startDate") LocalDate startDate,
+                                                                     @Param("endDate") LocalDate endDate,
+                                                                     @Param("afterDate") LocalDate afterDate,
+                                                                     @Param("afterId") Long afterId,
+                                                                     Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE f.id IN :ids ORDER BY f.id DESC")
+    List<InspectionFormSummary> findSummariesByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT f.id FROM InspectionForm f WHERE (:status IS NULL OR f.status = :status) "
+            + "AND (:fromDate IS NULL OR f.inspectionDate >= :fromDate) "
+            + "AND (:toDate IS NULL OR f.inspectionDate <= :toDate) ORDER BY f.id")
+    List<Long> findIds(@Param("status") InspectionForm.FormStatus status,
+                       @Param("fromDate") LocalDate fromDate,
+                       @Param("toDate") LocalDate toDate,
+                       Pageable pageable);
+
+    /**
+     * Streams forms for bulk export through a server-side cursor. Must be consumed inside a
+     * read-only transaction and closed afterwards; rows are fetched in blocks of 500.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT f FROM InspectionForm f WHERE (:status IS NULL OR f.status = :status) "
+            + "AND (:fromDate IS NULL OR f.inspectionDate >= :fromDate) "
+            + "AND (:toDate IS NULL OR f.inspectionDate <= :toDate) ORDER BY f.id")
+    Stream<InspectionForm> streamForExport(@Param("status") InspectionForm.FormStatus status,
+                                           @Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate);
+
+    // Forms of one inspection date, optionally narrowed to a shift and line, in shift report order
+
+    @Query(SUMMARY_SELECT + "WHERE f.inspectionDate = :inspectionDate "
+            + "AND (:shift IS NULL OR f.shift = :shift) AND (:lineNo IS NULL OR f.lineNo = :lineNo) "
+            + "ORDER BY f.lineNo, f.shift, f.id")
+    List<InspectionFormSummary> findShiftSummaries(@Param("inspectionDate") LocalDate inspectionDate,
+                                                   @Param("shift") String shift,
+                                                   @Param("lineNo") String lineNo);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "50"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f FROM InspectionForm f WHERE f.inspectionDate = :inspectionDate "
+            + "AND (:shift IS NULL OR f.shift = :shift) AND (:lineNo IS NULL OR f.lineNo = :lineNo) "
+            + "ORDER BY f.lineNo, f.shift, f.id")
+    Stream<InspectionForm> streamShiftForms(@Param("inspectionDate") LocalDate inspectionDate,
+                                            @Param("shift") String shift,
+                                            @Param("lineNo") String lineNo);
 }
@@ -0,0 +1,51 @@
+package com.swajyot.log.repository;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormStats;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Aggregate queries for the dashboard. Counts are read from the daily rollup table
+ * (inspection_form_daily_rollups), which is kept up to date on every form change.
+ */
+public interface InspectionFormStatsRepository {
+
+    /**
+     * Form counts per status overall and per inspection day, shift, line and product,
+     * for forms inspected between the given dates (inclusive), in one query over the rollups
+     */
+    List<StatusCount> countByStatus(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Count and average submission-to-review turnaround from the rollups; no percentiles
+     */
+    InspectionFormStats.Turnaround sumTurnaround(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Exact submission-to-review turnaround including percentiles, computed from the
+     * reviewed forms themselves
+     */
+    InspectionFormStats.Turnaround findTurnaround(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Add the given deltas to one rollup row, creating it if needed and dropping it once it no longer counts any form
+     */
+    void adjustRollup(RollupKey key, long formDelta, long reviewedDelta, double turnaroundMinutesDelta);
+
+    /**
+     * Recompute all rollup rows from the forms table
+     * @return The number of rollup rows written
+     */
+    int rebuildRollups();
+
+    record StatusCount(StatsDimension dimension, String key, InspectionForm.FormStatus status, long count) {
+    }
+
+    /**
+     * Identifies one rollup row. Missing line, shift, product or status are stored as ""
+     */
+    record RollupKey(LocalDate inspectionDate, String lineNo, String shift, String product, String status) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.swajyot.log.repository;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class InspectionFormStatsRepositoryImpl implements InspectionFormStatsRepository {
+
+    // GROUPING(col) is 1 when col is rolled up in a row, which tells the grouping sets apart
+    private static final String STATUS_COUNTS_SQL = """
+            SELECT CASE WHEN GROUPING(r.inspection_date) = 0 THEN 'DAY'
+                        WHEN GROUPING(r.shift) = 0 THEN 'SHIFT'
+                        WHEN GROUPING(r.line_no) = 0 THEN 'LINE'
+                        WHEN GROUPING(r.product) = 0 THEN 'PRODUCT'
+                        ELSE 'TOTAL' END AS dimension,
+                   CASE WHEN GROUPING(r.inspection_date) = 0 THEN CAST(r.inspection_date AS text)
+                        WHEN GROUPING(r.shift) = 0 THEN r.shift
+                        WHEN GROUPING(r.line_no) = 0 THEN r.line_no
+                        WHEN GROUPING(r.product) = 0 THEN r.product END AS group_key,
+                   r.status,
+                   SUM(r.form_count) AS form_count
+            FROM inspection_form_daily_rollups r
+            WHERE r.inspection_date BETWEEN :startDate AND :endDate
+            GROUP BY GROUPING SETS ((r.status), (r.inspection_date, r.status), (r.shift, r.status),
+                                    (r.line_no, r.status), (r.product, r.status))
+            HAVING SUM(r.form_count) > 0
+            ORDER BY 1, 2, 3
+            """;
+
+    private static final String TURNAROUND_SUM_SQL = """
+            SELECT COALESCE(SUM(r.reviewed_count), 0) AS reviewed,
+                   SUM(r.turnaround_minutes) / NULLIF(SUM(r.reviewed_count), 0) AS average_minutes
+            FROM inspection_form_daily_rollups r
+            WHERE r.inspection_date BETWEEN :startDate AND :endDate
+            """;
+
+    private static final String ADJUST_ROLLUP_SQL = """
+            INSERT INTO inspection_form_daily_rollups AS r (inspection_date, line_no, shift, product, status,
+                                                            form_count, reviewed_count, turnaround_minutes)
+            VALUES (:inspectionDate, :lineNo, :shift, :product, :status, :formDelta, :reviewedDelta, :minutesDelta)
+            ON CONFLICT (inspection_date, line_no, shift, product, status) DO UPDATE
+            SET form_count = r.form_count + EXCLUDED.form_count,
+                reviewed_count = r.reviewed_count + EXCLUDED.reviewed_count,
+                turnaround_minutes = r.turnaround_minutes + EXCLUDED.turnaround_minutes
+            """;
+
+    private static final String DELETE_EMPTY_ROLLUP_SQL = """
+            DELETE FROM inspection_form_daily_rollups
+            WHERE inspection_date = :inspectionDate AND line_no = :lineNo AND shift = :shift
+              AND product = :product AND status = :status AND form_count <= 0
+            """;
+
+    private static final String REVIEWED = "f.status IN ('APPROVED', 'REJECTED') "
+            + "AND f.submitted_at IS NOT NULL AND f.reviewed_at IS NOT NULL";
+
+    private static final String REBUILD_ROLLUPS_SQL = """
+            INSERT INTO inspection_form_daily_rollups
+            SELECT f.inspection_date, COALESCE(f.line_no, ''), COALESCE(f.shift, ''), COALESCE(f.product, ''),
+                   COALESCE(f.status, ''), COUNT(*),
+                   COUNT(*) FILTER (WHERE {reviewed}),
+                   COALESCE(SUM(EXTRACT(EPOCH FROM (f.reviewed_at - f.submitted_at)) / 60) FILTER (WHERE {reviewed}), 0)
+            FROM inspection_forms f
+            WHERE f.inspection_date IS NOT NULL
+            GROUP BY 1, 2, 3, 4, 5
+            """.replace("{reviewed}", REVIEWED);
+
+    private static final String TURNAROUND_SQL = """
+            SELECT COUNT(*) AS reviewed,
+                   AVG(t.minutes) AS average_minutes,
+                   percentile_cont(ARRAY[0.5, 0.9, 0.95]) WITHIN GROUP (ORDER BY t.minutes) AS percentiles,
+                   MAX(t.minutes) AS max_minutes
+            FROM (SELECT EXTRACT(EPOCH FROM (f.reviewed_at - f.submitted_at)) / 60 AS minutes
+                  FROM inspection_forms f
+                  WHERE f.inspection_date BETWEEN :startDate AND :endDate AND {reviewed}) t
+            """.replace("{reviewed}", REVIEWED);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<StatusCount> countByStatus(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(STATUS_COUNTS_SQL, dateRange(startDate, endDate), (rs, rowNum) -> new StatusCount(
+                StatsDimension.valueOf(rs.getString("dimension")),
+                rs.getString("group_key"),
+                parseStatus(rs.getString("status")),
+                rs.getLong("form_count")));
+    }
+
+    @Override
+    public InspectionFormStats.Turnaround findTurnaround(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.queryForObject(TURNAROUND_SQL, dateRange(startDate, endDate), (rs, rowNum) -> {
+            Double[] percentiles = new Double[3];
+            Array array = rs.getArray("percentiles");
+            if (array != null) {
+                Object[] values = (Object[]) array.getArray();
+                for (int i = 0; i < percentiles.length && i < values.length; i++) {
+                    percentiles[i] = values[i] != null ? ((Number) values[i]).doubleValue() : null;
+                }
+            }
+            return new InspectionFormStats.Turnaround(rs.getLong("reviewed"), getDouble(rs, "average_minutes"),
+                    percentiles[0], percentiles[1], percentiles[2], getDouble(rs, "max_minutes"));
+        });
+    }
+
+    @Override
+    public InspectionFormStats.Turnaround sumTurnaround(LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.queryForObject(TURNAROUND_SUM_SQL, dateRange(startDate, endDate), (rs, rowNum) ->
+                new InspectionFormStats.Turnaround(rs.getLong("reviewed"), getDouble(rs, "average_minutes"),
+                        null, null, null, null));
+    }
+
+    @Override
+    public void adjustRollup(RollupKey key, long formDelta, long reviewedDelta, double turnaroundMinutesDelta) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("inspectionDate", key.inspectionDate())
+                .addValue("lineNo", key.lineNo())
+                .addValue("shift", key.shift())
+                .addValue("product", key.product())
+                .addValue("status", key.status())
+                .addValue("formDelta", formDelta)
+                .addValue("reviewedDelta", reviewedDelta)
+                .addValue("minutesDelta", turnaroundMinutesDelta);
+        jdbcTemplate.update(ADJUST_ROLLUP_SQL, params);
+        if (formDelta < 0) {
+            jdbcTemplate.update(DELETE_EMPTY_ROLLUP_SQL, params);
+        }
+    }
+
+    @Override
+    public int rebuildRollups() {
+        // Blocks form changes (which adjust rollups) until the rebuild commits, and waits for
+        // in-flight ones, so no delta is lost or counted twice
+        jdbcTemplate.getJdbcOperations().execute("LOCK TABLE inspection_form_daily_rollups IN EXCLUSIVE MODE");
+        jdbcTemplate.getJdbcOperations().update("DELETE FROM inspection_form_daily_rollups");
+        return jdbcTemplate.getJdbcOperations().update(REBUILD_ROLLUPS_SQL);
+    }
+
+    private MapSqlParameterSource dateRange(LocalDate startDate, LocalDate endDate) {
+        return new MapSqlParameterSource()
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate);
+    }
+
+    private InspectionForm.FormStatus parseStatus(String status) {
+        return status == null || status.isEmpty() ? null : InspectionForm.FormStatus.valueOf(status);
+    }
+
+    private Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
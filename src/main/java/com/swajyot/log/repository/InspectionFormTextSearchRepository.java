@@ -0,0 +1,23 @@
+package com.swajyot.log.repository;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fuzzy text search over product, customer and variant, served by the pg_trgm indexes on
+ * lower(column). Matching is case-insensitive and tolerates typos and partial words.
+ */
+public interface InspectionFormTextSearchRepository {
+
+    /**
+     * Ids of forms where any of the given fields contains the query or is similar to it,
+     * best matches first (ties broken by newest id)
+     */
+    List<Long> findIdsByText(String query, Set<FormTextField> fields, int offset, int limit);
+
+    /**
+     * Distinct values of a field for typeahead: values starting with the prefix come first,
+     * then fuzzy matches, each ordered by how close and how common they are
+     */
+    List<String> suggestValues(FormTextField field, String prefix, int limit);
+}
@@ -0,0 +1,70 @@
+package com.swajyot.log.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class InspectionFormTextSearchRepositoryImpl implements InspectionFormTextSearchRepository {
+
+    // Substring match or word similarity above pg_trgm.word_similarity_threshold; both are index-assisted
+    private static final String FIELD_MATCH_SQL = "(lower(f.{col}) LIKE :pattern OR :query <% lower(f.{col}))";
+    private static final String FIELD_SCORE_SQL = "COALESCE(word_similarity(:query, lower(f.{col})), 0)";
+
+    private static final String SUGGEST_SQL = """
+            SELECT v.value FROM (
+                SELECT f.{col} AS value, COUNT(*) AS uses,
+                       BOOL_OR(lower(f.{col}) LIKE :prefixPattern) AS prefix_match,
+                       MAX(word_similarity(:query, lower(f.{col}))) AS score
+                FROM inspection_forms f
+                WHERE lower(f.{col}) LIKE :prefixPattern OR :query <% lower(f.{col})
+                GROUP BY f.{col}
+            ) v
+            ORDER BY v.prefix_match DESC, v.score DESC, v.uses DESC, v.value
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> findIdsByText(String query, Set<FormTextField> fields, int offset, int limit) {
+        String normalized = query.toLowerCase(Locale.ROOT);
+        String match = fields.stream()
+                .map(field -> column(FIELD_MATCH_SQL, field))
+                .collect(Collectors.joining(" OR "));
+        String score = fields.stream()
+                .map(field -> column(FIELD_SCORE_SQL, field))
+                .collect(Collectors.joining(", "));
+        String sql = "SELECT f.id FROM inspection_forms f WHERE " + match
+                + " ORDER BY GREATEST(" + score + ", 0) DESC, f.id DESC OFFSET :offset LIMIT :limit";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", normalized)
+                .addValue("pattern", "%" + escapeLike(normalized) + "%")
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(sql, params, Long.class);
+    }
+
+    @Override
+    public List<String> suggestValues(FormTextField field, String prefix, int limit) {
+        String normalized = prefix.toLowerCase(Locale.ROOT);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", normalized)
+                .addValue("prefixPattern", escapeLike(normalized) + "%")
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(column(SUGGEST_SQL, field), params, String.class);
+    }
+
+    private String column(String template, FormTextField field) {
+        return template.replace("{col}", field.getColumn());
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,38 @@
+package com.swajyot.log.repository;
+
+import com.swajyot.log.model.FormTransition;
+import com.swajyot.log.model.InspectionForm;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Workflow state changes, each applied with a single conditional statement.
+ */
+public interface InspectionFormWorkflowRepository {
+
+    /**
+     * Apply a transition to one form if it is in one of the transition's source states and,
+     * when an expected version is given, still at that version.
+     * @return The form's state before and after, or empty if there is no such form
+     */
+    Optional<TransitionRow> transition(Long id, FormTransition transition, String actor, String comments,
+                                       Long expectedVersion, LocalDateTime now);
+
+    /**
+     * Lock the given forms and apply the transition to those currently in one of its source states.
+     * @return One row per form that exists, updated or not, with its state before and after
+     */
+    List<TransitionRow> transitionAll(Collection<Long> ids, FormTransition transition, String actor, String comments,
+                                      LocalDateTime now);
+
+    record TransitionRow(Long id, boolean updated, LocalDate inspectionDate, String lineNo, String shift,
+                         String product, InspectionForm.FormStatus oldStatus, String oldSubmittedBy,
+                         LocalDateTime oldSubmittedAt, String oldReviewedBy, LocalDateTime oldReviewedAt,
+                         String oldComments, InspectionForm.FormStatus status, LocalDateTime submittedAt,
+                         LocalDateTime reviewedAt, long version) {
+    }
+}
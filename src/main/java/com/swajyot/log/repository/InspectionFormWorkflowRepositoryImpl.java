@@ -0,0 +1,109 @@
+package com.swajyot.log.repository;
+
+import com.swajyot.log.model.FormTransition;
+import com.swajyot.log.model.InspectionForm;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class InspectionFormWorkflowRepositoryImpl implements InspectionFormWorkflowRepository {
+
+    // The UPDATE only applies to rows in an allowed state (and at the expected version, if one is given).
+    // Rows are locked first, in id order, so the old state returned for the rollups and the history is the one actually
+    // replaced, and concurrent batches over overlapping ids can't deadlock.
+    // Transitions don't change the inspection date, line, shift or product, so those come from the locked rows.
+    private static final String TRANSITION_SQL = """
+            WITH locked AS (
+                SELECT f.id, f.inspection_date, f.line_no, f.shift, f.product, f.status, f.submitted_by,
+                       f.submitted_at, f.reviewed_by, f.reviewed_at, f.comments, f.version
+                FROM inspection_forms f
+                WHERE f.id IN (:ids)
+                ORDER BY f.id
+                FOR UPDATE
+            ), updated AS (
+                UPDATE inspection_forms f
+                SET {set}, status = :target, updated_at = :now, version = f.version + 1
+                FROM locked l
+                WHERE f.id = l.id AND l.status IN (:allowedFrom)
+                  AND (CAST(:expectedVersion AS bigint) IS NULL OR l.version = :expectedVersion)
+                RETURNING f.id, f.status, f.submitted_at, f.reviewed_at, f.version
+            )
+            SELECT l.id, u.id IS NOT NULL AS updated, l.inspection_date, l.line_no, l.shift, l.product,
+                   l.status AS old_status, l.submitted_by AS old_submitted_by, l.submitted_at AS old_submitted_at,
+                   l.reviewed_by AS old_reviewed_by, l.reviewed_at AS old_reviewed_at, l.comments AS old_comments,
+                   CASE WHEN u.id IS NOT NULL THEN u.status ELSE l.status END AS status,
+                   CASE WHEN u.id IS NOT NULL THEN u.submitted_at ELSE l.submitted_at END AS submitted_at,
+                   CASE WHEN u.id IS NOT NULL THEN u.reviewed_at ELSE l.reviewed_at END AS reviewed_at,
+                   CASE WHEN u.id IS NOT NULL THEN u.version ELSE l.version END AS version
+            FROM locked l
+            LEFT JOIN updated u ON u.id = l.id
+            ORDER BY l.id
+            """;
+
+    private static final String SUBMIT_SET = "submitted_by = :actor, submitted_at = :now";
+    private static final String REVIEW_SET = "reviewed_by = :actor, reviewed_at = :now, comments = :comments";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<TransitionRow> transition(Long id, FormTransition transition, String actor, String comments,
+                                              Long expectedVersion, LocalDateTime now) {
+        return run(List.of(id), transition, actor, comments, expectedVersion, now).stream().findFirst();
+    }
+
+    @Override
+    public List<TransitionRow> transitionAll(Collection<Long> ids, FormTransition transition, String actor,
+                                             String comments, LocalDateTime now) {
+        return run(ids, transition, actor, comments, null, now);
+    }
+
+    private List<TransitionRow> run(Collection<Long> ids, FormTransition transition, String actor, String comments,
+                                    Long expectedVersion, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("allowedFrom", transition.getSources().stream().map(Enum::name).toList())
+                .addValue("target", transition.getTarget().name())
+                .addValue("actor", actor)
+                .addValue("comments", comments)
+                .addValue("expectedVersion", expectedVersion, Types.BIGINT)
+                .addValue("now", now);
+        String sql = TRANSITION_SQL.replace("{set}", transition.isReview() ? REVIEW_SET : SUBMIT_SET);
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new TransitionRow(
+                rs.getLong("id"),
+                rs.getBoolean("updated"),
+                rs.getObject("inspection_date", LocalDate.class),
+                rs.getString("line_no"),
+                rs.getString("shift"),
+                rs.getString("product"),
+                parseStatus(rs.getString("old_status")),
+                rs.getString("old_submitted_by"),
+                getDateTime(rs, "old_submitted_at"),
+                rs.getString("old_reviewed_by"),
+                getDateTime(rs, "old_reviewed_at"),
+                rs.getString("old_comments"),
+                parseStatus(rs.getString("status")),
+                getDateTime(rs, "submitted_at"),
+                getDateTime(rs, "reviewed_at"),
+                rs.getLong("version")));
+    }
+
+    private InspectionForm.FormStatus parseStatus(String status) {
+        return status != null ? InspectionForm.FormStatus.valueOf(status) : null;
+    }
+
+    private LocalDateTime getDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
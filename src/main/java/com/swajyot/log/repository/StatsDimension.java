@@ -0,0 +1,13 @@
+package com.swajyot.log.repository;
+
+/**
+ * The groupings returned by {@link InspectionFormStatsRepository#countByStatus}.
+ * TOTAL rows carry no key.
+ */
+public enum StatsDimension {
+    TOTAL,
+    DAY,
+    SHIFT,
+    LINE,
+    PRODUCT
+}
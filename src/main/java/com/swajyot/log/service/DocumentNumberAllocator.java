@@ -0,0 +1,166 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.DocumentSequence;
+import com.swajyot.log.repository.DocumentSequenceRepository;
+import com.swajyot.log.repository.InspectionFormRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out document numbers in the format AGI-APR-YY-X, where YY is the last two digits
+ * of the current year and X increments for each document in that year.
+ *
+ * Each prefix has a counter row in document_sequences. Numbers are reserved from it in blocks
+ * (app.document-number.block-size, default 20) in a short transaction of their own, so the row
+ * lock is never held for the length of the caller's transaction and most allocations need no
+ * second connection. Reserved numbers are cached in memory; numbers unused at shutdown are skipped.
+ * The counter is seeded from the highest existing document number the first time a prefix is used,
+ * and every write that stores an explicit number of the current year calls {@link #advancePast} so
+ * later allocations never hand out a number that is already taken.
+ */
+@Service
+public class DocumentNumberAllocator {
+
+    private static final String DOC_PREFIX = "AGI-APR-";
+
+    private final DocumentSequenceRepository documentSequenceRepository;
+    private final InspectionFormRepository inspectionFormRepository;
+    private final TransactionTemplate reservationTransaction;
+    private final int blockSize;
+
+    // Numbers already reserved from the database but not yet handed out, per prefix
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public DocumentNumberAllocator(DocumentSequenceRepository documentSequenceRepository,
+                                   InspectionFormRepository inspectionFormRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.document-number.block-size:20}") int blockSize) {
+        this.documentSequenceRepository = documentSequenceRepository;
+        this.inspectionFormRepository = inspectionFormRepository;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    public String nextDocumentNumber() {
+        return nextDocumentNumbers(1).get(0);
+    }
+
+    /**
+     * Allocate several document numbers for the current year at once
+     * @param count How many numbers are needed
+     * @return The numbers, in increasing order
+     */
+    public List<String> nextDocumentNumbers(int count) {
+        String prefix = currentPrefix();
+        Block block = blocks.computeIfAbsent(prefix, p -> new Block());
+        List<String> numbers = new ArrayList<>(count);
+
+        synchronized (block) {
+            while (numbers.size() < count) {
+                // Skip numbers stored explicitly since this block was reserved
+                block.next = Math.max(block.next, block.floor.get());
+                if (block.next > block.last) {
+                    long size = Math.max(blockSize, count - numbers.size());
+                    long last = reserve(prefix, size, block.floor.get());
+                    block.next = last - size + 1;
+                    block.last = last;
+                    continue;
+                }
+                numbers.add(prefix + block.next++);
+            }
+        }
+        return numbers;
+    }
+
+    /**
+     * Make sure the current year's counter is at or beyond the given document numbers, which
+     * were set explicitly rather than allocated (client-supplied, edited or imported). Numbers
+     * of other years or formats are ignored.
+     *
+     * Runs in the caller's transaction, so the counter only moves if the form is saved. Call it
+     * after any allocation in that transaction: the counter row stays locked until commit, and
+     * allocations reserve in a transaction of their own. The in-memory block is moved first and
+     * without its monitor, since an allocation may hold the monitor while waiting for the row.
+     */
+    public void advancePast(Collection<String> documentNumbers) {
+        String prefix = currentPrefix();
+        long highest = 0;
+        for (String documentNo : documentNumbers) {
+            if (documentNo != null && documentNo.startsWith(prefix)) {
+                String suffix = documentNo.substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.length() <= 18 && suffix.chars().allMatch(Character::isDigit)) {
+                    highest = Math.max(highest, Long.parseLong(suffix));
+                }
+            }
+        }
+        if (highest == 0) {
+            return;
+        }
+
+        // Numbers reserved earlier and still cached in memory may include the taken one
+        Block block = blocks.computeIfAbsent(prefix, p -> new Block());
+        block.floor.accumulateAndGet(highest + 1, Math::max);
+
+        if (documentSequenceRepository.advanceTo(prefix, highest) == 0
+                && !documentSequenceRepository.existsByPrefix(prefix)) {
+            // First use of the prefix; the scan sees this transaction's own forms too
+            Long existingMax = inspectionFormRepository.findMaxDocumentSequence(prefix);
+            if (documentSequenceRepository.insertIfAbsent(prefix, Math.max(highest, existingMax != null ? existingMax : 0L)) == 0) {
+                // Seeded concurrently by an allocation that may not have seen this number
+                documentSequenceRepository.advanceTo(prefix, highest);
+            }
+        }
+    }
+
+    public void advancePast(String documentNo) {
+        advancePast(Collections.singletonList(documentNo));
+    }
+
+    /**
+     * Reserve the next {@code size} sequence values for a prefix, none of them below {@code floor}
+     * @return The last reserved value
+     */
+    private long reserve(String prefix, long size, long floor) {
+        Long last = reservationTransaction.execute(status -> {
+            DocumentSequence sequence = documentSequenceRepository.findForUpdate(prefix)
+                    .orElseGet(() -> createSequence(prefix));
+            sequence.setLastValue(Math.max(sequence.getLastValue(), floor - 1) + size);
+            return sequence.getLastValue();
+        });
+        return last != null ? last : 0L;
+    }
+
+    private DocumentSequence createSequence(String prefix) {
+        // Another node may seed the same prefix concurrently; the insert is a no-op for the loser
+        Long existingMax = inspectionFormRepository.findMaxDocumentSequence(prefix);
+        documentSequenceRepository.insertIfAbsent(prefix, existingMax != null ? existingMax : 0L);
+        return documentSequenceRepository.findForUpdate(prefix)
+                .orElseThrow(() -> new IllegalStateException("Document sequence missing for prefix: " + prefix));
+    }
+
+    private String currentPrefix() {
+        String yearSuffix = String.valueOf(LocalDate.now().getYear()).substring(2);
+        return DOC_PREFIX + yearSuffix + "-";
+    }
+
+    private static class Block {
+        // Guarded by the block's monitor
+        private long next = 1;
+        private long last = 0;
+        // Lowest number that may still be handed out; raised by advancePast without the monitor
+        private final AtomicLong floor = new AtomicLong(1);
+    }
+}
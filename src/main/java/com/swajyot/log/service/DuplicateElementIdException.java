@@ -0,0 +1,21 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.repository.FormElementList;
+import lombok.Getter;
+
+/**
+ * Thrown when an element is added with an id that another element of the same list already has.
+ * Element ids must be unique within a list, since edits and removals address elements by id.
+ */
+@Getter
+public class DuplicateElementIdException extends RuntimeException {
+
+    private final Long formId;
+    private final FormElementList list;
+
+    public DuplicateElementIdException(Long formId, FormElementList list) {
+        super("Inspection Form " + formId + " already has an element with this id in " + list.getColumn());
+        this.formId = formId;
+        this.list = list;
+    }
+}
@@ -0,0 +1,24 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.FormTransition;
+import com.swajyot.log.model.InspectionForm;
+import lombok.Getter;
+
+/**
+ * Thrown when a workflow transition is not allowed from the form's current state,
+ * e.g. approving a form that was never submitted.
+ */
+@Getter
+public class FormTransitionException extends RuntimeException {
+
+    private final Long formId;
+    private final FormTransition transition;
+    private final InspectionForm.FormStatus currentStatus;
+
+    public FormTransitionException(Long formId, FormTransition transition, InspectionForm.FormStatus currentStatus) {
+        super("Cannot " + transition.name().toLowerCase() + " Inspection Form " + formId + " in status " + currentStatus);
+        this.formId = formId;
+        this.transition = transition;
+        this.currentStatus = currentStatus;
+    }
+}
@@ -0,0 +1,20 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionForm;
+import lombok.Getter;
+
+/**
+ * Thrown when a change was based on an older version of a form than the one stored.
+ * Carries the current form so the client can merge and retry.
+ */
+@Getter
+public class FormVersionConflictException extends RuntimeException {
+
+    private final InspectionForm currentForm;
+
+    public FormVersionConflictException(InspectionForm currentForm, Long expectedVersion) {
+        super("Inspection Form " + currentForm.getId() + " is at version " + currentForm.getVersion()
+                + ", not " + expectedVersion);
+        this.currentForm = currentForm;
+    }
+}
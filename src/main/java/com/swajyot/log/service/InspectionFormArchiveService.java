@@ -0,0 +1,186 @@
+package com.swajyot.log.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.repository.InspectionFormRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many inspection form PDFs concurrently and streams them into a ZIP archive.
+ *
+ * At most app.pdf-archive.concurrency PDFs are rendered at once, each on its own virtual thread,
+ * and each one is written to the archive as soon as it finishes. Only the PDFs in flight are held
+ * in memory. The archive ends with a manifest.json entry listing every requested form and whether
+ * it was rendered.
+ */
+@Slf4j
+@Service
+public class InspectionFormArchiveService {
+
+    private static final String MANIFEST_ENTRY = "manifest.json";
+
+    private final InspectionFormService inspectionFormService;
+    private final InspectionFormRepository inspectionFormRepository;
+    private final InspectionFormPdfService pdfService;
+    private final InspectionFormPdfCache pdfCache;
+    private final ObjectMapper objectMapper;
+    private final int concurrency;
+    private final int maxForms;
+
+    public InspectionFormArchiveService(InspectionFormService inspectionFormService,
+                                        InspectionFormRepository inspectionFormRepository,
+                                        InspectionFormPdfService pdfService,
+                                        InspectionFormPdfCache pdfCache,
+                                        ObjectMapper objectMapper,
+                                        @Value("${app.pdf-archive.concurrency:0}") int concurrency,
+                                        @Value("${app.pdf-archive.max-forms:5000}") int maxForms) {
+        this.inspectionFormService = inspectionFormService;
+        this.inspectionFormRepository = inspectionFormRepository;
+        this.pdfService = pdfService;
+        this.pdfCache = pdfCache;
+        this.objectMapper = objectMapper;
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.maxForms = maxForms;
+    }
+
+    /**
+     * Work out which forms go into an archive: the given ids if any, otherwise every form
+     * matching the status and inspection date filters.
+     * @throws IllegalArgumentException if more than app.pdf-archive.max-forms forms would be included
+     */
+    public List<Long> resolveFormIds(List<Long> ids, InspectionForm.FormStatus status,
+                                     LocalDate startDate, LocalDate endDate) {
+        List<Long> formIds;
+        if (ids != null && !ids.isEmpty()) {
+            formIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        } else {
+            formIds = inspectionFormRepository.findIds(status, startDate, endDate, PageRequest.ofSize(maxForms + 1));
+        }
+        if (formIds.size() > maxForms) {
+            throw new IllegalArgumentException("Archive would contain more than " + maxForms + " forms");
+        }
+        return formIds;
+    }
+
+    /**
+     * Render the given forms and write them, followed by the manifest, as a ZIP archive
+     * @param out The stream to write to; the archive is finished but the stream is not closed
+     * @param formIds The forms to include, in the order they should be submitted for rendering
+     */
+    public void writeArchive(OutputStream out, List<Long> formIds) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        List<ManifestEntry> entries = new ArrayList<>(formIds.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<ManifestEntryWithPdf> completion = new ExecutorCompletionService<>(executor);
+            Iterator<Long> pending = formIds.iterator();
+            int inFlight = 0;
+
+            while (inFlight < concurrency && pending.hasNext()) {
+                Long id = pending.next();
+                completion.submit(() -> render(id));
+                inFlight++;
+            }
+
+            while (inFlight > 0) {
+                ManifestEntryWithPdf result = takeNext(completion);
+                inFlight--;
+                if (pending.hasNext()) {
+                    Long id = pending.next();
+                    completion.submit(() -> render(id));
+                    inFlight++;
+                }
+
+                if (result.pdf() != null) {
+                    writeStoredEntry(zip, result.entry().file(), result.pdf());
+                    zip.flush();
+                }
+                entries.add(result.entry());
+            }
+        }
+
+        long succeeded = entries.stream().filter(ManifestEntry::rendered).count();
+        Manifest manifest = new Manifest(LocalDateTime.now(), formIds.size(), succeeded,
+                formIds.size() - succeeded, entries);
+        byte[] manifestJson = objectMapper.writer()
+                .with(SerializationFeature.INDENT_OUTPUT)
+                .writeValueAsBytes(manifest);
+        writeStoredEntry(zip, MANIFEST_ENTRY, manifestJson);
+        zip.finish();
+        zip.flush();
+    }
+
+    private ManifestEntryWithPdf render(Long id) {
+        try {
+            InspectionForm form = inspectionFormService.getFormById(id);
+            byte[] pdf = pdfService.getOrGeneratePdf(form, pdfCache.contentVersion(form));
+            // Sanitized document numbers can coincide; the id keeps entry names unique
+            String file = "inspection_form_" + id + "_" + form.getDocumentNo().replaceAll("[^A-Za-z0-9._-]", "_") + ".pdf";
+            return new ManifestEntryWithPdf(new ManifestEntry(id, form.getDocumentNo(), file, true, null), pdf);
+        } catch (Exception e) {
+            log.warn("Could not render PDF for form {} in archive: {}", id, e.getMessage());
+            return new ManifestEntryWithPdf(new ManifestEntry(id, null, null, false, e.getMessage()), null);
+        }
+    }
+
+    private ManifestEntryWithPdf takeNext(CompletionService<ManifestEntryWithPdf> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while building PDF archive", e);
+        } catch (ExecutionException e) {
+            // render() reports its own failures, so this only happens on errors like OutOfMemoryError
+            throw new IOException("PDF rendering failed", e.getCause());
+        }
+    }
+
+    /**
+     * PDFs are already compressed, so they are stored rather than deflated again
+     */
+    private void writeStoredEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    public record ManifestEntry(Long id, String documentNo, String file, boolean rendered, String error) {
+    }
+
+    public record Manifest(LocalDateTime generatedAt, int requested, long rendered, long failed,
+                           List<ManifestEntry> forms) {
+    }
+
+    private record ManifestEntryWithPdf(ManifestEntry entry, byte[] pdf) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.swajyot.log.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.swajyot.log.config.CacheConfig;
+
+/**
+ * Drops a form from the entity cache once a change to it has committed. Every write path records
+ * history, so this covers the element edits, batch transitions, imports and deletes that don't
+ * go through the cached service methods.
+ */
+@Component
+public class InspectionFormCacheInvalidator {
+
+    private final Cache forms;
+
+    public InspectionFormCacheInvalidator(CacheManager cacheManager) {
+        this.forms = cacheManager.getCache(CacheConfig.FORMS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFormChanged(InspectionFormChangedEvent changed) {
+        // evictIfPresent acts immediately; a plain evict() here would be deferred to a commit that has already happened
+        forms.evictIfPresent(changed.formId());
+    }
+}
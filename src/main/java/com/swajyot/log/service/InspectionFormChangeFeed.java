@@ -0,0 +1,259 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormChange;
+import com.swajyot.log.model.InspectionFormEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent event feed of committed form changes, so review screens can follow changes
+ * instead of polling the form listings.
+ *
+ * The last app.change-feed.buffer-size changes are kept in memory. Every change has a token of
+ * the form {epoch}-{sequence}; a client that reconnects with its last token (the standard
+ * Last-Event-ID header) is first sent the changes it missed. If those are no longer buffered,
+ * or the token is from before a restart, it is sent a "reset" event and should reload its list.
+ *
+ * Publishing only appends to the buffer and to each client's queue, in order under one lock, so
+ * committing requests never wait on clients. Every client has its own queue of at most
+ * app.change-feed.subscriber-queue-size events, written by a thread of its own; a client that
+ * falls that far behind is sent "reset" in place of the queued events and disconnected.
+ */
+@Slf4j
+@Component
+public class InspectionFormChangeFeed {
+
+    public static final String CHANGE_EVENT = "change";
+    public static final String RESET_EVENT = "reset";
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int queueSize;
+    private final long timeoutMillis;
+
+    // Distinguishes tokens handed out before a restart, whose sequence numbers mean nothing now
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("form-change-feed").daemon().unstarted(runnable));
+    // Platform threads: SseEmitter.send is synchronized, so a virtual thread blocked on a slow client
+    // would pin its carrier. Writer threads only exist while a client has events queued.
+    private final ExecutorService writers = Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("form-change-feed-writer-", 0).daemon().factory());
+
+    // Buffer and sequence are guarded by the lock; subscriptions can be counted from any thread
+    private final Object lock = new Object();
+    private final Deque<Entry> buffer = new ArrayDeque<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    public InspectionFormChangeFeed(@Value("${app.change-feed.buffer-size:1000}") int bufferSize,
+                                    @Value("${app.change-feed.max-subscribers:500}") int maxSubscribers,
+                                    @Value("${app.change-feed.subscriber-queue-size:100}") int queueSize,
+                                    @Value("${app.change-feed.timeout-minutes:30}") long timeoutMinutes,
+                                    @Value("${app.change-feed.heartbeat-seconds:25}") long heartbeatSeconds) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = Math.max(1, queueSize);
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        // Keeps idle connections from being closed by proxies, and notices clients that went away
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Which changes a client wants; null or empty means any. A status matches the form's status
+     * before or after the change, so clients also hear about forms leaving the status they watch.
+     */
+    public record Filter(Set<InspectionForm.FormStatus> statuses, String lineNo, String shift) {
+
+        boolean matches(InspectionFormChange change) {
+            return (statuses == null || statuses.isEmpty()
+                    || statuses.contains(change.getStatus()) || statuses.contains(change.getPreviousStatus()))
+                    && (lineNo == null || lineNo.equals(change.getLineNo()))
+                    && (shift == null || shift.equals(change.getShift()));
+        }
+    }
+
+    /**
+     * Open a feed for one client. Missed changes after the resume token, if any, are sent first.
+     * @throws IllegalStateException if the maximum number of clients is connected
+     */
+    public SseEmitter subscribe(Filter filter, String resumeToken) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, filter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitter.complete());
+        synchronized (lock) {
+            if (resumeToken != null && !resumeToken.isBlank() && !replay(subscription, parseSequence(resumeToken))) {
+                return emitter;
+            }
+            subscriptions.add(subscription);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFormChanged(InspectionFormChangedEvent changed) {
+        InspectionFormEvent event = changed.event();
+        synchronized (lock) {
+            long next = ++sequence;
+            InspectionFormChange change = new InspectionFormChange(epoch + "-" + next, event.getFormId(), event.getType(),
+                    changed.previousStatus(), changed.status(), changed.lineNo(), changed.shift(),
+                    event.getVersion(), event.getActor(), event.getOccurredAt());
+            Entry entry = new Entry(next, change);
+            buffer.addLast(entry);
+            if (buffer.size() > bufferSize) {
+                buffer.removeFirst();
+            }
+            subscriptions.removeIf(subscription -> subscription.filter.matches(change) && !subscription.offer(changeEvent(entry)));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        writers.shutdownNow();
+        for (Subscription subscription : List.copyOf(subscriptions)) {
+            subscription.emitter.complete();
+        }
+    }
+
+    // Queue the changes after the given sequence, or a reset if they aren't all buffered any more.
+    // False if the client was already dropped.
+    private boolean replay(Subscription subscription, Long after) {
+        long oldest = buffer.isEmpty() ? sequence + 1 : buffer.peekFirst().sequence;
+        if (after == null || after > sequence || after < oldest - 1) {
+            return subscription.offer(resetEvent());
+        }
+        for (Entry entry : buffer) {
+            if (entry.sequence > after && subscription.filter.matches(entry.change) && !subscription.offer(changeEvent(entry))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void heartbeat() {
+        subscriptions.removeIf(subscription -> !subscription.offer(SseEmitter.event().comment("keep-alive")));
+    }
+
+    private static SseEmitter.SseEventBuilder changeEvent(Entry entry) {
+        return SseEmitter.event()
+                .id(entry.change.getToken())
+                .name(CHANGE_EVENT)
+                .data(entry.change, MediaType.APPLICATION_JSON);
+    }
+
+    private static SseEmitter.SseEventBuilder resetEvent() {
+        return SseEmitter.event().name(RESET_EVENT).data("{}", MediaType.APPLICATION_JSON);
+    }
+
+    private Long parseSequence(String token) {
+        int dash = token.lastIndexOf('-');
+        if (dash < 0 || !token.substring(0, dash).equals(epoch)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(token.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Entry(long sequence, InspectionFormChange change) {
+    }
+
+    /**
+     * One client's queue of events to send. A writer task is started when events arrive and none is
+     * running, and sends until the queue is empty, so a slow client only holds up its own thread.
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Filter filter;
+        // Guarded by this subscription
+        private final Deque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean writing;
+        // No more events are accepted; the emitter is completed once the queue is written
+        private boolean closing;
+
+        Subscription(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        /**
+         * Queue an event. False if the client has gone away or just overflowed its queue, in which
+         * case it only gets a final reset.
+         */
+        synchronized boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closing) {
+                return false;
+            }
+            if (queue.size() >= queueSize) {
+                log.debug("Change feed subscriber fell {} events behind, sending reset", queueSize);
+                queue.clear();
+                queue.add(resetEvent());
+                closing = true;
+            } else {
+                queue.add(event);
+            }
+            if (!writing) {
+                writing = true;
+                writers.execute(this::write);
+            }
+            return !closing;
+        }
+
+        private void write() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean done;
+                synchronized (this) {
+                    event = queue.poll();
+                    writing = event != null;
+                    done = event == null && closing;
+                }
+                if (event == null) {
+                    if (done) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping change feed subscriber: {}", e.getMessage());
+                    synchronized (this) {
+                        closing = true;
+                        queue.clear();
+                        writing = false;
+                    }
+                    subscriptions.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormEvent;
+
+/**
+ * Published by the form services for every change to a form, along with the form's status
+ * before and after and its line and shift. The previous status is null for a new form and the
+ * status is null after a delete. Listeners that only care about committed changes should use
+ * @TransactionalEventListener.
+ */
+public record InspectionFormChangedEvent(InspectionFormEvent event, InspectionForm.FormStatus previousStatus,
+                                         InspectionForm.FormStatus status, String lineNo, String shift) {
+
+    public Long formId() {
+        return event.getFormId();
+    }
+}
@@ -0,0 +1,103 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionFormEvent;
+import com.swajyot.log.repository.InspectionFormEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the form history to the database in the background.
+ *
+ * Events are queued once the change's transaction has committed, so rolled-back changes never
+ * show up, and the request doesn't wait for the insert. One writer thread drains the queue in
+ * batches of up to app.events.batch-size, which keeps events in commit order. A full queue
+ * blocks the publishing request rather than dropping events, and the queue is flushed on shutdown.
+ */
+@Slf4j
+@Component
+public class InspectionFormEventWriter {
+
+    private final InspectionFormEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final BlockingQueue<InspectionFormEvent> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public InspectionFormEventWriter(InspectionFormEventRepository eventRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.events.batch-size:200}") int batchSize,
+                                     @Value("${app.events.queue-capacity:10000}") int queueCapacity) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = Thread.ofPlatform().name("form-event-writer").daemon().unstarted(this::run);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFormChanged(InspectionFormChangedEvent changed) throws InterruptedException {
+        queue.put(changed.event());
+    }
+
+    private void run() {
+        List<InspectionFormEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                InspectionFormEvent first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<InspectionFormEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> eventRepository.saveAll(batch));
+        } catch (RuntimeException e) {
+            // Don't let one bad event take the rest of the batch with it
+            for (InspectionFormEvent event : batch) {
+                event.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> eventRepository.save(event));
+                } catch (RuntimeException eventError) {
+                    log.error("Could not write {} event of form {}", event.getType(), event.getFormId(), eventError);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.swajyot.log.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.repository.InspectionFormRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes inspection forms as newline-delimited JSON for bulk consumers.
+ * Forms are read through a database cursor and detached once written, so heap use
+ * stays flat regardless of how many forms are exported.
+ */
+@Service
+@RequiredArgsConstructor
+public class InspectionFormExportService {
+
+    // Push buffered output to the client every this many forms
+    private static final int FLUSH_INTERVAL = 100;
+
+    private final InspectionFormRepository inspectionFormRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Export forms matching the optional filters as NDJSON, one form per line, ordered by id
+     * @param out The stream to write to; it is flushed but not closed
+     * @param status Only export forms in this status (optional)
+     * @param fromDate Only export forms inspected on or after this date (optional)
+     * @param toDate Only export forms inspected on or before this date (optional)
+     */
+    public void exportNdjson(OutputStream out, InspectionForm.FormStatus status, LocalDate fromDate, LocalDate toDate) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(txStatus -> {
+            try (Stream<InspectionForm> forms = inspectionFormRepository.streamForExport(status, fromDate, toDate);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+                int written = 0;
+                Iterator<InspectionForm> iterator = forms.iterator();
+                while (iterator.hasNext()) {
+                    InspectionForm form = iterator.next();
+                    writer.writeValue(generator, form);
+                    generator.writeRaw('\n');
+                    entityManager.detach(form);
+
+                    if (++written % FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+                generator.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,263 @@
+package com.swajyot.log.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.swajyot.log.config.CurrentUser;
+import com.swajyot.log.model.CursorPage;
+import com.swajyot.log.model.FormTransition;
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormEvent;
+import com.swajyot.log.model.InspectionFormEvent.EventType;
+import com.swajyot.log.model.InspectionFormEvent.FieldChange;
+import com.swajyot.log.repository.FormElementList;
+import com.swajyot.log.repository.InspectionFormElementRepository.ElementChange;
+import com.swajyot.log.repository.InspectionFormEventRepository;
+import com.swajyot.log.repository.InspectionFormWorkflowRepository.TransitionRow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * History of inspection forms: records every change as an InspectionFormEvent (written in the
+ * background by InspectionFormEventWriter), lists the history per form and per user, and
+ * rebuilds a form as it was at a point in time by replaying its events.
+ */
+@Service
+@RequiredArgsConstructor
+public class InspectionFormHistoryService {
+
+    private final InspectionFormEventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Bookkeeping that changes with every write; the event itself records the version and time
+    private static final Set<String> UNTRACKED_FIELDS = Set.of("id", "version", "updatedAt");
+
+    /**
+     * The tracked fields of a form in the REST API's JSON format. Take one before changing a
+     * managed form, since the change is applied to the same instance.
+     */
+    public ObjectNode snapshot(InspectionForm form) {
+        ObjectNode node = objectMapper.valueToTree(form);
+        node.remove(UNTRACKED_FIELDS);
+        return node;
+    }
+
+    public void recordCreated(InspectionForm form) {
+        publish(form.getId(), EventType.CREATE, CurrentUser.get(), form.getVersion(),
+                diff(objectMapper.createObjectNode(), snapshot(form)),
+                null, form.getStatus(), form.getLineNo(), form.getShift());
+    }
+
+    /**
+     * Record the fields that differ between a snapshot taken before a change and the form after it.
+     * Nothing is recorded if no tracked field changed.
+     */
+    public void recordUpdated(ObjectNode before, InspectionForm after) {
+        List<FieldChange> changes = diff(before, snapshot(after));
+        if (!changes.isEmpty()) {
+            publish(after.getId(), EventType.UPDATE, CurrentUser.get(), after.getVersion(), changes,
+                    after.getStatus(), after.getStatus(), after.getLineNo(), after.getShift());
+        }
+    }
+
+    /**
+     * Record an element-level change to a lacquer or characteristic list
+     * @param elementId The element's id, or null to take it from the element
+     * @param before The element before the change, or null if it was added
+     * @param after The element after the change, or null if it was removed
+     * @param change The statement's result, for the form's status, line and shift
+     */
+    public void recordElementChanged(Long formId, FormElementList list, Long elementId, Object before, Object after,
+                                     ElementChange change) {
+        JsonNode from = before != null ? objectMapper.valueToTree(before) : NullNode.getInstance();
+        JsonNode to = after != null ? objectMapper.valueToTree(after) : NullNode.getInstance();
+        Long id = elementId != null ? elementId : to.path("id").asLong();
+        publish(formId, EventType.UPDATE, CurrentUser.get(), change.version(),
+                List.of(new FieldChange(list.getColumn(), id, from, to)),
+                change.status(), change.status(), change.lineNo(), change.shift());
+    }
+
+    public void recordTransition(FormTransition transition, TransitionRow row, String actor, String comments) {
+        List<FieldChange> changes = new ArrayList<>();
+        addChange(changes, "status", row.oldStatus(), row.status());
+        if (transition.isReview()) {
+            addChange(changes, "reviewedBy", row.oldReviewedBy(), actor);
+            addChange(changes, "reviewedAt", row.oldReviewedAt(), row.reviewedAt());
+            addChange(changes, "comments", row.oldComments(), comments);
+        } else {
+            addChange(changes, "submittedBy", row.oldSubmittedBy(), actor);
+            addChange(changes, "submittedAt", row.oldSubmittedAt(), row.submittedAt());
+        }
+        publish(row.id(), EventType.valueOf(transition.name()), actor, row.version(), changes,
+                row.oldStatus(), row.status(), row.lineNo(), row.shift());
+    }
+
+    public void recordDeleted(InspectionForm form) {
+        publish(form.getId(), EventType.DELETE, CurrentUser.get(), form.getVersion(),
+                diff(snapshot(form), objectMapper.createObjectNode()),
+                form.getStatus(), null, form.getLineNo(), form.getShift());
+    }
+
+    private void publish(Long formId, EventType type, String actor, Long version, List<FieldChange> changes,
+                         InspectionForm.FormStatus previousStatus, InspectionForm.FormStatus status,
+                         String lineNo, String shift) {
+        InspectionFormEvent event = new InspectionFormEvent(
+                null, formId, type, actor, LocalDateTime.now(), version, changes);
+        eventPublisher.publishEvent(new InspectionFormChangedEvent(event, previousStatus, status, lineNo, shift));
+    }
+
+    private List<FieldChange> diff(ObjectNode before, ObjectNode after) {
+        Set<String> fields = new LinkedHashSet<>();
+        before.fieldNames().forEachRemaining(fields::add);
+        after.fieldNames().forEachRemaining(fields::add);
+        List<FieldChange> changes = new ArrayList<>();
+        for (String field : fields) {
+            JsonNode from = before.path(field);
+            JsonNode to = after.path(field);
+            if (from.isMissingNode()) {
+                from = NullNode.getInstance();
+            }
+            if (to.isMissingNode()) {
+                to = NullNode.getInstance();
+            }
+            if (!from.equals(to)) {
+                changes.add(new FieldChange(field, from, to));
+            }
+        }
+        return changes;
+    }
+
+    private void addChange(List<FieldChange> changes, String field, Object from, Object to) {
+        JsonNode fromNode = objectMapper.valueToTree(from);
+        JsonNode toNode = objectMapper.valueToTree(to);
+        if (!fromNode.equals(toNode)) {
+            changes.add(new FieldChange(field, fromNode, toNode));
+        }
+    }
+
+    public CursorPage<InspectionFormEvent> getFormHistory(Long formId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        return toCursorPage(eventRepository.findByFormId(
+                formId, decodeCursor(cursor), PageRequest.ofSize(pageSize + 1)), pageSize);
+    }
+
+    public CursorPage<InspectionFormEvent> getUserHistory(String actor, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        return toCursorPage(eventRepository.findByActor(
+                actor, decodeCursor(cursor), PageRequest.ofSize(pageSize + 1)), pageSize);
+    }
+
+    /**
+     * The form as it was at the given time, rebuilt from its history. Empty if the form did not
+     * exist at that time, i.e. it was not created yet or had already been deleted.
+     */
+    @Transactional(readOnly = true)
+    public Optional<InspectionForm> getFormAt(Long formId, LocalDateTime at) {
+        ObjectNode state = null;
+        InspectionFormEvent last = null;
+        Long version = null;
+        for (InspectionFormEvent event : eventRepository.findReplayEvents(formId, at)) {
+            if (event.getType() == EventType.CREATE) {
+                state = objectMapper.createObjectNode();
+            } else if (event.getType() == EventType.DELETE) {
+                state = null;
+                continue;
+            } else if (state == null) {
+                continue;
+            }
+            for (FieldChange change : event.getChanges()) {
+                if (change.getElementId() != null) {
+                    applyElementChange(state, change);
+                } else {
+                    state.set(change.getField(), change.getTo());
+                }
+            }
+            last = event;
+            // Element-level changes don't record the version, but always increment it by one
+            if (event.getVersion() != null) {
+                version = event.getVersion();
+            } else if (version != null) {
+                version++;
+            }
+        }
+        if (state == null) {
+            return Optional.empty();
+        }
+        state.put("id", formId);
+        state.put("version", version);
+        state.set("updatedAt", objectMapper.valueToTree(last.getOccurredAt()));
+        try {
+            return Optional.of(objectMapper.treeToValue(state, InspectionForm.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot rebuild Inspection Form " + formId + " from its history", e);
+        }
+    }
+
+    // Replace, append or (with a null value) remove the element with the change's id
+    private void applyElementChange(ObjectNode state, FieldChange change) {
+        JsonNode current = state.path(change.getField());
+        ArrayNode list = current.isArray() ? (ArrayNode) current : state.putArray(change.getField());
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).path("id").asLong(Long.MIN_VALUE) == change.getElementId()) {
+                if (change.getTo() == null || change.getTo().isNull()) {
+                    list.remove(i);
+                } else {
+                    list.set(i, change.getTo());
+                }
+                return;
+            }
+        }
+        if (change.getTo() != null && !change.getTo().isNull()) {
+            list.add(change.getTo());
+        }
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private CursorPage<InspectionFormEvent> toCursorPage(List<InspectionFormEvent> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<InspectionFormEvent> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    private String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
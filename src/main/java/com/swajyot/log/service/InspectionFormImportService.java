@@ -0,0 +1,159 @@
+package com.swajyot.log.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swajyot.log.model.ImportResult;
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.repository.InspectionFormRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bulk creation of inspection forms from a JSON array or NDJSON stream.
+ *
+ * Forms are read one at a time and inserted in chunks (app.import.chunk-size), one transaction per chunk,
+ * through Hibernate's JDBC batching. Document numbers for a chunk are reserved in a single round trip.
+ * If a chunk fails, its records are retried one by one so only the offending records are rejected.
+ */
+@Service
+public class InspectionFormImportService {
+
+    private final InspectionFormService inspectionFormService;
+    private final InspectionFormRepository inspectionFormRepository;
+    private final DocumentNumberAllocator documentNumberAllocator;
+    private final InspectionFormRollupService rollupService;
+    private final InspectionFormHistoryService historyService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public InspectionFormImportService(InspectionFormService inspectionFormService,
+                                       InspectionFormRepository inspectionFormRepository,
+                                       DocumentNumberAllocator documentNumberAllocator,
+                                       InspectionFormRollupService rollupService,
+                                       InspectionFormHistoryService historyService,
+                                       EntityManager entityManager,
+                                       ObjectMapper objectMapper,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.import.chunk-size:500}") int chunkSize) {
+        this.inspectionFormService = inspectionFormService;
+        this.inspectionFormRepository = inspectionFormRepository;
+        this.documentNumberAllocator = documentNumberAllocator;
+        this.rollupService = rollupService;
+        this.historyService = historyService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Import forms from a JSON array or from newline-delimited JSON objects. Ids and workflow
+     * timestamps are taken as given except the id, which is always assigned; missing document
+     * numbers and defaults are filled in as for a single create.
+     * Records that can't be mapped or inserted are reported and skipped; malformed JSON ends the import.
+     */
+    public ImportResult importForms(InputStream in) {
+        ImportResult result = new ImportResult();
+        List<Record> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<InspectionForm> forms = objectMapper.readerFor(InspectionForm.class).readValues(in)) {
+            int index = 0;
+            while (true) {
+                try {
+                    if (!forms.hasNextValue()) {
+                        break;
+                    }
+                    chunk.add(new Record(index, forms.nextValue()));
+                } catch (JsonParseException e) {
+                    result.addError(index++, null, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+                    break;
+                } catch (DatabindException e) {
+                    result.addError(index, null, "Invalid record: " + e.getOriginalMessage());
+                }
+                index++;
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+            result.setReceived(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private void importChunk(List<Record> chunk, ImportResult result) {
+        int missingNumbers = 0;
+        for (Record record : chunk) {
+            if (record.form.getDocumentNo() == null || record.form.getDocumentNo().isEmpty()) {
+                missingNumbers++;
+            }
+        }
+        Iterator<String> numbers = missingNumbers > 0
+                ? documentNumberAllocator.nextDocumentNumbers(missingNumbers).iterator()
+                : null;
+        List<InspectionForm> forms = new ArrayList<>(chunk.size());
+        for (Record record : chunk) {
+            InspectionForm form = record.form;
+            form.setId(null);
+            if (form.getDocumentNo() == null || form.getDocumentNo().isEmpty()) {
+                form.setDocumentNo(numbers.next());
+            }
+            inspectionFormService.applyNewFormDefaults(form);
+            forms.add(form);
+        }
+
+        try {
+            insert(forms);
+            result.setImported(result.getImported() + forms.size());
+        } catch (RuntimeException e) {
+            // One bad record fails the whole chunk; retry individually to find it
+            for (Record record : chunk) {
+                record.form.setId(null);
+                record.form.setVersion(null);
+                try {
+                    insert(List.of(record.form));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException recordError) {
+                    result.addError(record.index, record.form.getDocumentNo(),
+                            NestedExceptionUtils.getMostSpecificCause(recordError).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<InspectionForm> forms) {
+        transactionTemplate.executeWithoutResult(status -> {
+            inspectionFormRepository.saveAll(forms);
+            entityManager.flush();
+            rollupService.addAll(forms);
+            forms.forEach(historyService::recordCreated);
+            // Records may carry their own numbers; allocated ones are already below the counter.
+            // Last in the transaction, which keeps the counter row locked until commit
+            documentNumberAllocator.advancePast(forms.stream().map(InspectionForm::getDocumentNo).toList());
+            // Imported forms are not needed afterwards; keep the persistence context small
+            entityManager.clear();
+        });
+    }
+
+    private record Record(int index, InspectionForm form) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.swajyot.log.service;
+
+import com.vladmihalcea.hibernate.type.util.ObjectMapperWrapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import com.swajyot.log.model.FormTransition;
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.repository.FormElementList;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the form hot paths that @Timed on the services doesn't see: PDF rendering phases and
+ * sizes, JSONB payload sizes and workflow transitions. Exposed with everything else at
+ * /actuator/prometheus; histogram buckets are enabled in application.properties.
+ */
+@Component
+@RequiredArgsConstructor
+public class InspectionFormMetrics {
+
+    static final String PDF_PHASE = "inspection.form.pdf.phase";
+    static final String PDF_SIZE = "inspection.form.pdf.size";
+    static final String JSONB_SIZE = "inspection.form.jsonb.size";
+    static final String TRANSITIONS = "inspection.form.transitions";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * One step of PDF rendering, run and timed
+     */
+    @FunctionalInterface
+    public interface PdfPhase {
+        void run() throws IOException;
+    }
+
+    public void timePdfPhase(String phase, PdfPhase action) throws IOException {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            pdfPhaseTimer(phase).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public Timer pdfPhaseTimer(String phase) {
+        return Timer.builder(PDF_PHASE)
+                .description("Time spent in one phase of rendering a form's PDF")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    public void recordPdfSize(long bytes) {
+        DistributionSummary.builder(PDF_SIZE)
+                .description("Size of rendered form PDFs")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * Size of the lacquer and characteristic columns of a form as written by a full-form save
+     */
+    public void recordJsonbSizes(InspectionForm form) {
+        recordJsonbSize(FormElementList.LACQUERS, "column", form.getLacquers());
+        recordJsonbSize(FormElementList.CHARACTERISTICS, "column", form.getCharacteristics());
+    }
+
+    /**
+     * Size of a single element sent to the database by an element-level edit
+     */
+    public void recordElementSize(FormElementList list, String json) {
+        record(list, "element", json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private void recordJsonbSize(FormElementList list, String scope, List<?> value) {
+        if (value != null) {
+            // Serialized the way the JSONB type stores it
+            record(list, scope, ObjectMapperWrapper.INSTANCE.toBytes(value).length);
+        }
+    }
+
+    private void record(FormElementList list, String scope, int bytes) {
+        DistributionSummary.builder(JSONB_SIZE)
+                .description("Size of JSONB payloads written for forms")
+                .baseUnit("bytes")
+                .tag("list", list.getColumn())
+                .tag("scope", scope)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * Count a workflow transition from the given status that was applied, or refused because
+     * the transition isn't allowed from that status
+     */
+    public void countTransition(FormTransition transition, InspectionForm.FormStatus from, boolean applied) {
+        meterRegistry.counter(TRANSITIONS,
+                "transition", transition.name(),
+                "from", String.valueOf(from),
+                "to", transition.getTarget().name(),
+                "outcome", applied ? "applied" : "refused").increment();
+    }
+}
@@ -0,0 +1,165 @@
+package com.swajyot.log.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swajyot.log.model.InspectionForm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of rendered inspection form PDFs, keyed by form id and a hash of the form's content.
+ *
+ * The memory tier is an LRU map bounded by total PDF size (app.pdf-cache.max-memory-bytes).
+ * If app.pdf-cache.directory is set, PDFs are also written there and survive restarts.
+ * Because the key contains the content hash, an edited form can never be served a stale PDF;
+ * invalidate() just frees the space held by old versions.
+ */
+@Slf4j
+@Component
+public class InspectionFormPdfCache {
+
+    private final ObjectMapper objectMapper;
+    private final long maxMemoryBytes;
+    private final Path directory;
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, CachedPdf> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+
+    public InspectionFormPdfCache(ObjectMapper objectMapper,
+                                  @Value("${app.pdf-cache.max-memory-bytes:67108864}") long maxMemoryBytes,
+                                  @Value("${app.pdf-cache.directory:}") String directory) {
+        this.objectMapper = objectMapper;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory == null || directory.isBlank() ? null : Path.of(directory);
+        if (this.directory != null) {
+            try {
+                Files.createDirectories(this.directory);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create PDF cache directory: " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Hash of everything that ends up in the form's PDF. Also used as the PDF's ETag.
+     */
+    public String contentVersion(InspectionForm form) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsBytes(form));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute content version of form " + form.getId(), e);
+        }
+    }
+
+    /**
+     * @return The cached PDF for this version of the form, or null if it is not cached
+     */
+    public byte[] get(Long formId, String version) {
+        synchronized (memory) {
+            CachedPdf cached = memory.get(formId);
+            if (cached != null && cached.version().equals(version)) {
+                return cached.pdf();
+            }
+        }
+
+        if (directory != null) {
+            Path file = fileFor(formId, version);
+            if (Files.exists(file)) {
+                try {
+                    byte[] pdf = Files.readAllBytes(file);
+                    putInMemory(formId, version, pdf);
+                    return pdf;
+                } catch (IOException e) {
+                    log.warn("Could not read cached PDF {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+
+    public void put(Long formId, String version, byte[] pdf) {
+        putInMemory(formId, version, pdf);
+
+        if (directory != null) {
+            deleteFiles(formId);
+            Path file = fileFor(formId, version);
+            try {
+                Path temp = Files.createTempFile(directory, formId + "-", ".tmp");
+                Files.write(temp, pdf);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Could not write cached PDF {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop every cached version of a form's PDF
+     */
+    public void invalidate(Long formId) {
+        if (formId == null) {
+            return;
+        }
+        synchronized (memory) {
+            CachedPdf removed = memory.remove(formId);
+            if (removed != null) {
+                memoryBytes -= removed.pdf().length;
+            }
+        }
+        if (directory != null) {
+            deleteFiles(formId);
+        }
+    }
+
+    private void putInMemory(Long formId, String version, byte[] pdf) {
+        if (pdf.length > maxMemoryBytes) {
+            return;
+        }
+        synchronized (memory) {
+            CachedPdf previous = memory.put(formId, new CachedPdf(version, pdf));
+            if (previous != null) {
+                memoryBytes -= previous.pdf().length;
+            }
+            memoryBytes += pdf.length;
+
+            Iterator<Map.Entry<Long, CachedPdf>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getValue().pdf().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private Path fileFor(Long formId, String version) {
+        return directory.resolve(formId + "-" + version + ".pdf");
+    }
+
+    private void deleteFiles(Long formId) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, formId + "-*.pdf")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not remove cached PDFs for form {}: {}", formId, e.getMessage());
+        }
+    }
+
+    private record CachedPdf(String version, byte[] pdf) {
+    }
+}
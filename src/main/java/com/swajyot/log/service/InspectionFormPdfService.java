@@ -1,34 +1,39 @@
 package com.swajyot.log.service;
 
-import com.itextpdf.io.font.constants.StandardFonts;
-import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
-import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.*;
+import com.itextpdf.layout.properties.AreaBreakType;
 import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.properties.VerticalAlignment;
 import com.swajyot.log.model.Characteristic;
 import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormSummary;
 import com.swajyot.log.model.Lacquer;
-import org.springframework.core.io.ClassPathResource;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
-import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@RequiredArgsConstructor
 public class InspectionFormPdfService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
@@ -40,6 +45,26 @@ public class InspectionFormPdfService {
     private static final Border SOLID_BORDER = new SolidBorder(ColorConstants.BLACK, BORDER_WIDTH);
     private static final DeviceRgb HEADER_BG_COLOR = new DeviceRgb(230, 230, 230);
 
+    private final PdfResourceCache resourceCache;
+    private final InspectionFormPdfCache pdfCache;
+    private final InspectionFormMetrics metrics;
+
+    /**
+     * Get the PDF for an inspection form, rendering it only if this version of the form is not cached
+     * @param form The inspection form data
+     * @param contentVersion The form's content version from {@link InspectionFormPdfCache#contentVersion}
+     * @return PDF as byte array
+     */
+    public byte[] getOrGeneratePdf(InspectionForm form, String contentVersion) throws IOException {
+        byte[] cached = pdfCache.get(form.getId(), contentVersion);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] pdf = generatePdf(form);
+        pdfCache.put(form.getId(), contentVersion, pdf);
+        return pdf;
+    }
+
     /**
      * Generate a PDF for an inspection form
      * @param form The inspection form data
@@ -47,31 +72,135 @@ public class InspectionFormPdfService {
      */
     public byte[] generatePdf(InspectionForm form) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
+        generatePdf(form, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Generate a PDF for an inspection form straight into an output stream.
+     * Completed pages are written out while the rest of the document is laid out,
+     * so the whole document is never held in memory.
+     * @param form The inspection form data
+     * @param out The stream to write to; it is flushed but not closed
+     */
+    public void generatePdf(InspectionForm form, OutputStream out) throws IOException {
+        // Counted here so streamed PDFs are measured as well as the ones rendered into the cache
+        CountingOutputStream counted = new CountingOutputStream(out);
+        Document document = openDocument(counted);
+
+        // Fonts and images are bound to a single document, but built from shared resources
+        PdfResourceCache.DocumentResources resources = metrics.pdfPhaseTimer("resources").record(resourceCache::forDocument);
+
+        addForm(document, form, resources);
+
+        // Writes out the remaining pages and the cross-reference table
+        metrics.timePdfPhase("close", document::close);
+        out.flush();
+        metrics.recordPdfSize(counted.count);
+    }
+
+    /**
+     * Generate one PDF covering several inspection forms, e.g. all forms of a shift.
+     * Starts with an overview table, then each form on its own page(s). Fonts and images are
+     * shared by all forms, so the logo and signatures are embedded once however many forms there are.
+     * @param title Report title shown on the overview page
+     * @param summaries Overview rows, one per form, in report order
+     * @param forms The forms to render, in the same order
+     * @param onRendered Called after each form has been added, e.g. to release it
+     * @param out The stream to write to; completed pages are written as the report is built
+     */
+    public void generateReport(String title, List<InspectionFormSummary> summaries, Iterator<InspectionForm> forms,
+                               Consumer<InspectionForm> onRendered, OutputStream out) throws IOException {
+        Document document = openDocument(out);
+        PdfResourceCache.DocumentResources resources = metrics.pdfPhaseTimer("resources").record(resourceCache::forDocument);
+
+        addReportOverview(document, title, summaries, resources.fontBold());
+
+        while (forms.hasNext()) {
+            InspectionForm form = forms.next();
+            document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
+            addForm(document, form, resources);
+            onRendered.accept(form);
+        }
+
+        metrics.timePdfPhase("close", document::close);
+        out.flush();
+    }
+
+    private Document openDocument(OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf, PageSize.A4);
         document.setMargins(20, 20, 20, 20);
+        return document;
+    }
+
+    /**
+     * Add all sections of one inspection form to the document
+     */
+    private void addForm(Document document, InspectionForm form, PdfResourceCache.DocumentResources resources) throws IOException {
+        PdfFont font = resources.font();
+        PdfFont fontBold = resources.fontBold();
+
+        // Each section is timed separately (inspection.form.pdf.phase); layout cost is mostly in the tables
+        metrics.timePdfPhase("header", () -> addHeader(document, form, fontBold, resources));
+        metrics.timePdfPhase("headerInfo", () -> addHeaderInfo(document, form, font, fontBold));
+        metrics.timePdfPhase("lacquerTable", () -> addLacquerTable(document, form, font, fontBold));
+        metrics.timePdfPhase("characteristicsTable", () -> addCharacteristicsTable(document, form, font, fontBold));
+        metrics.timePdfPhase("signatureSection", () -> addSignatureSection(document, form, font, fontBold, resources));
+        metrics.timePdfPhase("reviewInfo", () -> addReviewInfo(document, form, font, fontBold));
+    }
+
+    /**
+     * Add the overview page of a multi-form report
+     */
+    private void addReportOverview(Document document, String title, List<InspectionFormSummary> summaries, PdfFont fontBold) {
+        document.add(new Paragraph("AGI Greenpac Limited")
+                .setFont(fontBold)
+                .setFontSize(16)
+                .setTextAlignment(TextAlignment.CENTER));
+        document.add(new Paragraph(title)
+                .setFont(fontBold)
+                .setFontSize(12)
+                .setTextAlignment(TextAlignment.CENTER));
 
-        // Load fonts
-        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont fontBold = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        Table table = new Table(UnitValue.createPercentArray(new float[]{8, 20, 24, 16, 10, 8, 14}))
+                .setWidth(UnitValue.createPercentValue(100));
 
-        // Add content to PDF
-        addHeader(document, form, fontBold);
-        addHeaderInfo(document, form, font, fontBold);
-        addLacquerTable(document, form, font, fontBold);
-        addCharacteristicsTable(document, form, font, fontBold);
-        addSignatureSection(document, form, font, fontBold);
-        addReviewInfo(document, form, font, fontBold);
+        addTableHeader(table, "S.No.", fontBold);
+        addTableHeader(table, "Document No.", fontBold);
+        addTableHeader(table, "Product", fontBold);
+        addTableHeader(table, "Variant", fontBold);
+        addTableHeader(table, "Line No.", fontBold);
+        addTableHeader(table, "Shift", fontBold);
+        addTableHeader(table, "Status", fontBold);
+
+        int serial = 1;
+        for (InspectionFormSummary summary : summaries) {
+            addReportCell(table, String.valueOf(serial++), TextAlignment.CENTER);
+            addReportCell(table, summary.getDocumentNo(), TextAlignment.LEFT);
+            addReportCell(table, summary.getProduct(), TextAlignment.LEFT);
+            addReportCell(table, summary.getVariant(), TextAlignment.LEFT);
+            addReportCell(table, summary.getLineNo(), TextAlignment.CENTER);
+            addReportCell(table, summary.getShift(), TextAlignment.CENTER);
+            addReportCell(table, summary.getStatus() != null ? summary.getStatus().name() : "", TextAlignment.CENTER);
+        }
 
-        document.close();
-        return baos.toByteArray();
+        document.add(table);
+    }
+
+    private void addReportCell(Table table, String value, TextAlignment alignment) {
+        table.addCell(new Cell().add(new Paragraph(value != null ? value : ""))
+                .setTextAlignment(alignment)
+                .setBorder(SOLID_BORDER));
     }
 
     /**
      * Add the header section to the PDF
      */
-    private void addHeader(Document document, InspectionForm form, PdfFont fontBold) throws IOException {
+    private void addHeader(Document document, InspectionForm form, PdfFont fontBold,
+                           PdfResourceCache.DocumentResources resources) throws IOException {
         // Create a 3-column table for the header
         Table headerTable = new Table(UnitValue.createPercentArray(new float[]{30, 40, 30}))
                 .setWidth(UnitValue.createPercentValue(100))
@@ -88,18 +217,7 @@ public class InspectionFormPdfService {
         headerTable.addCell(titleCell);
 
         // Column 3: Logo
-        // Load the AGI logo
-        Image logo;
-        try {
-            // Try to load from classpath
-            ClassPathResource resource = new ClassPathResource("static/images/agilogo.png");
-            logo = new Image(ImageDataFactory.create(resource.getInputStream().readAllBytes()));
-        } catch (Exception e) {
-            // Fallback to a placeholder logo
-            byte[] placeholder = Base64.getDecoder().decode("iVBORw0KGgoAAAANSUhEUgAAAGQAAABkCAIAAAD/gAIDAAAAGXRFWHRTb2Z0d2FyZQBBZG9iZSBJbWFnZVJlYWR5ccllPAAAAyJpVFh0WE1MOmNvbS5hZG9iZS54bXAAAAAAADw/eHBhY2tldCBiZWdpbj0i77u/IiBpZD0iVzVNME1wQ2VoaUh6cmVTek5UY3prYzlkIj8+IDx4OnhtcG1ldGEgeG1sbnM6eD0iYWRvYmU6bnM6bWV0YS8iIHg6eG1wdGs9IkFkb2JlIFhNUCBDb3JlIDUuMy1jMDExIDY2LjE0NTY2MSwgMjAxMi8wMi8wNi0xNDo1NjoyNyAgICAgICAgIj4gPHJkZjpSREYgeG1sbnM6cmRmPSJodHRwOi8vd3d3LnczLm9yZy8xOTk5LzAyLzIyLXJkZi1zeW50YXgtbnMjIj4gPHJkZjpEZXNjcmlwdGlvbiByZGY6YWJvdXQ9IiIgeG1sbnM6eG1wPSJodHRwOi8vbnMuYWRvYmUuY29tL3hhcC8xLjAvIiB4bWxuczp4bXBNTT0iaHR0cDovL25zLmFkb2JlLmNvbS94YXAvMS4wL21tLyIgeG1sbnM6c3RSZWY9Imh0dHA6Ly9ucy5hZG9iZS5jb20veGFwLzEuMC9zVHlwZS9SZXNvdXJjZVJlZiMiIHhtcDpDcmVhdG9yVG9vbD0iQWRvYmUgUGhvdG9zaG9wIENTNiAoV2luZG93cykiIHhtcE1NOkluc3RhbmNlSUQ9InhtcC5paWQ6NTkzRTlDQkUyMEU5MTFFQTk4RkNBRkJDODVCRTZCODMiIHhtcE1NOkRvY3VtZW50SUQ9InhtcC5kaWQ6NTkzRTlDQkYyMEU5MTFFQTk4RkNBRkJDODVCRTZCODMiPiA8eG1wTU06RGVyaXZlZEZyb20gc3RSZWY6aW5zdGFuY2VJRD0ieG1wLmlpZDo1OTNFOUNCQzIwRTkxMUVBOThGQ0FGQkM4NUJFNkI4MyIgc3RSZWY6ZG9jdW1lbnRJRD0ieG1wLmRpZDo1OTNFOUNCRDIwRTkxMUVBOThGQ0FGQkM4NUJFNkI4MyIvPiA8L3JkZjpEZXNjcmlwdGlvbj4gPC9yZGY6UkRGPiA8L3g6eG1wbWV0YT4gPD94cGFja2V0IGVuZD0iciI/PpR4Hs4AAAgISURBVHja7JxrbBRVFMfPnd3Z3S7d0pWWbYEi5VGMWAPxAZgoBsLDGISoRIN8IcaYKJ+MSvxgCD7wQwkJMTHRRGIk8YMJGk0kBIwvSDRCRMFAIgYUaAHb0hf7nN0ZzwxndnZ3Znfb6ba7c+C07cydu3vv/57//5x7Z2dNQggMx8IyTGAYtjBsYdjCsIVhC8MWhi0MWxi2MGxh2MKwhWELw9Yw1m/O/Q8tCyYzRGmNDaFQMDyQSuA4Dviv1BobAMdR39d1xDl3HOq6jmVNcM1fsdpaIgQIQQD5f5ybpYfRUCXTnE6nwHEyU2/JskgTQizLEkIEQRAEQRRFnudr7TEfQUF8JEl0Y5qZCDAGRifBp8rGRgXgNJUa4ZKlGK4Mm2dnWf1Q30VFAZqYikSOKoqqquGwlP8eRcQDaiiKarooBIDU1NQtXBiBJ0pUgJd7dRtlZQVwoQQRCvE8D/C6LsU1Lpu6D3A6nYbfG24QQjRNczgc+eVcVKLJ9wJSoWoaQC5aDYWigXUcL8t6NBp2OADPcznAo7RFIpFYLOZwOEzWa+DLTIJlZCSJPP5YcLYdXVYUzYz5KQfTGhoa7rrrruXLl4dCIT6vB2nLqxcfPnzY4XDMnDmTZxaVp6xlyGxRIqyUWM37UPkMiouyzJZjwc5SAyGkqmogEFixYsXZs2e//vprmyfzgBgIBJLJZHt7O0+ZYEUd/Pju6JBVNZ9FZctR/Lnvn3PZKQRnwTxDsJlM5vHHH+/r6/v6669nzJhhcXIFYrt27XrooYduvvlmi0t46Rlf5aZ7TU1NLpfL5XK5XE6n0+l0u9yiKAqiwPN8JpPq7e21Xu/sHwwN9RA1BKPBT4lrGlJVVVGUTCaTSCQGBgb6+vquX7/e39//2GOP9fb2fvXVV1OnTrUYzOXLl7/88st9+/ZZXMJLr3rNQ6FQU1NTe3t7W1vblClTmpubXS7XwEBU06QTJ46LSqdlcjfbR2CUPXsufXju8kBU5ngfPcUYERFtMElJDdHfTU1Nd9xxx6pVq7xe75YtW1577bXe3t6vvvrK7/fbOhRCyJYtWzZs2DA4ONjS0mIN3lJ8M6yt7e3tXbZs2Z133mm4UT7uTgYG0q9/8HXw/OnQgFf3+yBeIIXfGCf6FI2mqaZpiURiYGCAYqS72Lx58zPPPNPR0XHo0KG5c+dajOaLL75YuHDha6+9Zt2DJcs1TnS5XAsWLJg+fTohJJVKaZrW19d38eJFnuc9Hk9zc7PP5+N5LpWSXn75vS++unH8ZPrqNYUQJxUZzLVYVBcZGJEkSZKkdDqdTCYlSRoaGlIUJZ1O9/T0NDY2iqLY2dnZ1NRk8SDPnj27cePGl156ieOsXUMr9TqkiGR0Op3zrwk6nU6fz+f3+1taWnw+HyFEVbWvvz31ye7rv/xGYrEoz1MwR3wDwJFEMjk0NBSJRPr7+3/77bdLly4dOXLkp59+2r9//+HDh48dO3bhwoXVq1fbOk44HH7xxRfXrVvX0dFRJnhLzUKCINBhNZvNZrPZbDZL3a6RSCSRSPh8Po/HI8syn0yqv1+JZLME+xxYP+RCoUVcEgQhEAjU1dX5/f729vahUEgURa/X29LS4vF4RFGMRCLP/vPi3r1777nnnvr6enunef/99+fNm9fa2lpO9pVWDiw0TUskEocOHfrhhx8OHDhw5syZeDweDodvv/32OXPmdHV1zZ8/f+bMme3t7YIgIISu/9GPEKqwABYuXLh79+6DBw8+8MADtk7T3d39zjvvbNu2rZyA5tDq0UfpvtFRo/0qPVAGYkYs3QIkSQoGgx6PR5ZlVVUDgUBXV1ddXd3DDz+8cOHCu+++e8aMGTSfvnz5w2eeebOvbwivbCgEcIvIQnSZInrHFFWmU4uyVF31OBRDqMbmfz737LPPvvnmm7bwOXfu3IoVK372iy/+Y7J9Q7VuM7bZ5KweFiCErHcZFoYtbGHYGpO/sQ17U1i2MGwNM9vCsDVsYdi6dU+djb3FGSPQmTaEEPiKgZ1xS3WZ3M3TYolWKpXq6ur66aefEokE5y+Hxd66kKqqtbW1W7duraurKzmLLOqWTrx1dHQcP358586dhw4dunbtWiQSoYcZxeUv9s0OwGqz2fZAINCazWZDodCePXs2bdp0/vz5wf8M/q3QEYvF7r///s8++2zNmjXlxbJoQmiOAo7jescdXV1dXV1dUvCGJMmqqhVOY+B1TVOUTDQajUQidMuOvgY1Go1eunSpt7f3xhfBAl4QBLfb3dbWNnfuXJcrkM2SUEjNZAb46vCw7UYZ6DlkuZlKpaLRKN0NphuwiUQilUrRjdhMJiPLMj09lG7L0udOVFWVpolUKhWLxX7//ffz588fP3786tWrgAOcc4aosrLZrNvtnj17tsfzoN//XE3NQcDtZDxVMxCCeJ6SJfI8ouwHAoHW1laEkKqqkiTJ+g/dJyQAMpmMpmnG8ydkhGiaJkmSpmm6rhfevKF+ZTIZmn/Rj5woivRTPM+XdLiwJHK5XJqmXblyJS5qmYwqCIFQSMHYFwrpAKFQSBSCTqen+GlNYn72G31S/O7du2trazdu3Lht2zav12u1xWx8TjUe7+jo6O7unmTUxeO9oZBPEFprampPnz59cWAwEAjiKmIcaXdQHBs+Px/w+7xu97xw2F0mIUW7wTbRxQIw0VWcLcyMDVsYtjBsYdjCsIVhC8MWhi0MWxi2MGxh2MKwhWELw9Yw1n8CDAA+JuJxGAh5aQAAAABJRU5ErkJggg==");
-            logo = new Image(ImageDataFactory.create(placeholder));
-        }
-        
+        Image logo = new Image(resources.logo());
         logo.setWidth(100);
         Cell logoCell = new Cell().add(logo).setBorder(Border.NO_BORDER);
         logoCell.setVerticalAlignment(VerticalAlignment.MIDDLE);
@@ -402,7 +520,8 @@ public class InspectionFormPdfService {
     /**
      * Add signature section to the document
      */
-    private void addSignatureSection(Document document, InspectionForm form, PdfFont font, PdfFont fontBold) throws IOException {
+    private void addSignatureSection(Document document, InspectionForm form, PdfFont font, PdfFont fontBold,
+                                     PdfResourceCache.DocumentResources resources) throws IOException {
         // Add spacing
         document.add(new Paragraph("\n"));
 
@@ -418,14 +537,13 @@ public class InspectionFormPdfService {
         
         // Add QA signature image if available
         if (form.getQaSignature() != null && !form.getQaSignature().isEmpty()) {
-            try {
-                // Load signature image
-                ClassPathResource resource = new ClassPathResource("static/images/QASign.png");
-                Image qaSignatureImg = new Image(ImageDataFactory.create(resource.getInputStream().readAllBytes()));
+            PdfImageXObject qaSignature = resources.qaSignature();
+            if (qaSignature != null) {
+                Image qaSignatureImg = new Image(qaSignature);
                 qaSignatureImg.setWidth(60);  // Set appropriate width
                 qaSignatureImg.setHeight(30); // Set appropriate height
                 qaCell.add(qaSignatureImg);
-            } catch (Exception e) {
+            } else {
                 // Fallback if image can't be loaded
                 qaCell.add(new Paragraph(form.getQaExecutive() + " (signed)"));
             }
@@ -440,14 +558,13 @@ public class InspectionFormPdfService {
         
         // Add Operator signature image if available
         if (form.getOperatorSignature() != null && !form.getOperatorSignature().isEmpty()) {
-            try {
-                // Load signature image
-                ClassPathResource resource = new ClassPathResource("static/images/OperatorSign.png");
-                Image opSignatureImg = new Image(ImageDataFactory.create(resource.getInputStream().readAllBytes()));
+            PdfImageXObject operatorSignature = resources.operatorSignature();
+            if (operatorSignature != null) {
+                Image opSignatureImg = new Image(operatorSignature);
                 opSignatureImg.setWidth(60);  // Set appropriate width
                 opSignatureImg.setHeight(30); // Set appropriate height
                 operatorCell.add(opSignatureImg);
-            } catch (Exception e) {
+            } else {
                 // Fallback if image can't be loaded
                 operatorCell.add(new Paragraph(form.getProductionOperator() + " (signed)"));
             }
@@ -570,4 +687,25 @@ public class InspectionFormPdfService {
                 .setBorderBottom(SOLID_BORDER)
         );
     }
-}
\ No newline at end of file
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.swajyot.log.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.swajyot.log.config.CacheConfig;
+import com.swajyot.log.model.InspectionForm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Results of the hot listing queries (forms by status, forms by inspection date), cached under
+ * their parameters plus a version counter. A change bumps the counters it affects, so later
+ * lookups use new keys and never see the old result; superseded entries age out of the cache.
+ *
+ * Status listings are versioned per status and only invalidated by changes to forms entering or
+ * leaving that status. Other listings use a global version that every change bumps.
+ * Counters are bumped when a change is made and again once its transaction has completed:
+ * a result loaded while the change was in flight is stored under a version that the second
+ * bump retires, so it is never served after the commit.
+ */
+@Component
+public class InspectionFormQueryCache {
+
+    private static final int LOAD_CHUNK_SIZE = 500;
+
+    private final Cache results;
+    private final Cache forms;
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final Map<InspectionForm.FormStatus, AtomicLong> statusVersions = new EnumMap<>(InspectionForm.FormStatus.class);
+
+    public InspectionFormQueryCache(CacheManager cacheManager) {
+        this.results = cacheManager.getCache(CacheConfig.FORM_QUERIES);
+        this.forms = cacheManager.getCache(CacheConfig.FORMS);
+        for (InspectionForm.FormStatus status : InspectionForm.FormStatus.values()) {
+            statusVersions.put(status, new AtomicLong());
+        }
+    }
+
+    private record Key(String query, long version, List<Object> parameters) {
+    }
+
+    /**
+     * Result of a listing of forms in one status, loading it on a miss
+     */
+    public <T> T getForStatus(InspectionForm.FormStatus status, String query, Supplier<T> loader, Object... parameters) {
+        return get(new Key(query + ":" + status, statusVersions.get(status).get(), Arrays.asList(parameters)), loader);
+    }
+
+    /**
+     * Result of a listing that any change to any form may affect, loading it on a miss
+     */
+    public <T> T get(String query, Supplier<T> loader, Object... parameters) {
+        return get(new Key(query, globalVersion.get(), Arrays.asList(parameters)), loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Supplier<T> loader) {
+        // The version is part of the key and was read before loading, so a result racing a change
+        // is stored under the retired version
+        Cache.ValueWrapper cached = results.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T value = loader.get();
+        results.put(key, value);
+        return value;
+    }
+
+    /**
+     * The forms with the given ids, in that order, taken from the entity cache where possible and
+     * loaded in chunks otherwise. The entity cache isn't versioned with the listing, so a cached
+     * form is only used if it still belongs to the listing and is reloaded otherwise. Ids of forms
+     * that no longer exist or no longer belong are skipped. Loaded forms are not added to the
+     * entity cache; it only holds forms opened or written individually.
+     */
+    public List<InspectionForm> resolveForms(List<Long> ids, Predicate<InspectionForm> belongs,
+                                             Function<List<Long>, List<InspectionForm>> loader) {
+        Map<Long, InspectionForm> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            InspectionForm form = forms.get(id, InspectionForm.class);
+            if (form != null && belongs.test(form)) {
+                found.put(id, form);
+            } else {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += LOAD_CHUNK_SIZE) {
+            for (InspectionForm form : loader.apply(missing.subList(from, Math.min(from + LOAD_CHUNK_SIZE, missing.size())))) {
+                if (belongs.test(form)) {
+                    found.put(form.getId(), form);
+                }
+            }
+        }
+        List<InspectionForm> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            InspectionForm form = found.get(id);
+            if (form != null) {
+                result.add(form);
+            }
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onFormChanging(InspectionFormChangedEvent changed) {
+        bump(changed);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onFormChanged(InspectionFormChangedEvent changed) {
+        bump(changed);
+    }
+
+    private void bump(InspectionFormChangedEvent changed) {
+        globalVersion.incrementAndGet();
+        if (changed.previousStatus() == null && changed.status() == null) {
+            // Status unknown, so any status listing may be affected
+            statusVersions.values().forEach(AtomicLong::incrementAndGet);
+            return;
+        }
+        if (changed.previousStatus() != null) {
+            statusVersions.get(changed.previousStatus()).incrementAndGet();
+        }
+        if (changed.status() != null && changed.status() != changed.previousStatus()) {
+            statusVersions.get(changed.status()).incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormSummary;
+import com.swajyot.log.repository.InspectionFormRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds consolidated PDF reports covering many inspection forms.
+ */
+@Service
+@RequiredArgsConstructor
+public class InspectionFormReportService {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final InspectionFormRepository inspectionFormRepository;
+    private final InspectionFormPdfService pdfService;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Overview rows for a shift report
+     * @param inspectionDate The inspection date
+     * @param shift Only include this shift (optional)
+     * @param lineNo Only include this line (optional)
+     */
+    public List<InspectionFormSummary> getShiftForms(LocalDate inspectionDate, String shift, String lineNo) {
+        return inspectionFormRepository.findShiftSummaries(inspectionDate, shift, lineNo);
+    }
+
+    /**
+     * Write the shift report as a single PDF. Forms are read one at a time through a database
+     * cursor and released once rendered, and completed pages are written out as they are produced.
+     * @param summaries The overview rows from {@link #getShiftForms}
+     */
+    public void writeShiftReport(OutputStream out, LocalDate inspectionDate, String shift, String lineNo,
+                                 List<InspectionFormSummary> summaries) {
+        String title = "Shift Inspection Report - " + inspectionDate.format(DATE_FORMATTER)
+                + (shift != null ? " - Shift " + shift : "")
+                + (lineNo != null ? " - Line " + lineNo : "");
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        transactionTemplate.executeWithoutResult(txStatus -> {
+            try (Stream<InspectionForm> forms = inspectionFormRepository.streamShiftForms(inspectionDate, shift, lineNo)) {
+                pdfService.generateReport(title, summaries, forms.iterator(), entityManager::detach, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
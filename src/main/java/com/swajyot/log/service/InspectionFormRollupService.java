@@ -0,0 +1,115 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.repository.InspectionFormRepository;
+import com.swajyot.log.repository.InspectionFormStatsRepository.RollupKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the daily statistics rollups in step with the forms. Callers take a {@link #contributionOf snapshot}
+ * of a form before changing it and {@link #apply apply} the difference afterwards, in the same transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class InspectionFormRollupService {
+
+    private final InspectionFormRepository inspectionFormRepository;
+
+    /**
+     * What a form adds to the rollups in its current state
+     * @return The contribution, or null if the form has no inspection date and so is not rolled up
+     */
+    public Contribution contributionOf(InspectionForm form) {
+        if (form == null) {
+            return null;
+        }
+        return contributionOf(form.getInspectionDate(), form.getLineNo(), form.getShift(), form.getProduct(),
+                form.getStatus(), form.getSubmittedAt(), form.getReviewedAt());
+    }
+
+    /**
+     * Same as {@link #contributionOf(InspectionForm)}, for callers that only have the rolled up fields
+     */
+    public Contribution contributionOf(LocalDate inspectionDate, String lineNo, String shift, String product,
+                                       InspectionForm.FormStatus status, LocalDateTime submittedAt,
+                                       LocalDateTime reviewedAt) {
+        if (inspectionDate == null) {
+            return null;
+        }
+        RollupKey key = new RollupKey(inspectionDate, valueOrEmpty(lineNo), valueOrEmpty(shift),
+                valueOrEmpty(product), status != null ? status.name() : "");
+        boolean reviewed = (status == InspectionForm.FormStatus.APPROVED || status == InspectionForm.FormStatus.REJECTED)
+                && submittedAt != null && reviewedAt != null;
+        double turnaroundMinutes = reviewed ? ChronoUnit.MICROS.between(submittedAt, reviewedAt) / 60_000_000.0 : 0;
+        return new Contribution(key, reviewed, turnaroundMinutes);
+    }
+
+    /**
+     * Move a form's contribution from its old state to its new one. Either side may be null
+     * for a form that is created, deleted or has no inspection date.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Contribution before, Contribution after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            inspectionFormRepository.adjustRollup(before.key(), -1, before.reviewed() ? -1 : 0, -before.turnaroundMinutes());
+        }
+        if (after != null) {
+            inspectionFormRepository.adjustRollup(after.key(), 1, after.reviewed() ? 1 : 0, after.turnaroundMinutes());
+        }
+    }
+
+    /**
+     * Add the contributions of many new forms, with one rollup update per distinct row rather than per form
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(Collection<InspectionForm> forms) {
+        Map<RollupKey, Totals> totals = new HashMap<>();
+        for (InspectionForm form : forms) {
+            Contribution contribution = contributionOf(form);
+            if (contribution != null) {
+                Totals total = totals.computeIfAbsent(contribution.key(), key -> new Totals());
+                total.forms++;
+                total.reviewed += contribution.reviewed() ? 1 : 0;
+                total.turnaroundMinutes += contribution.turnaroundMinutes();
+            }
+        }
+        totals.forEach((key, total) -> inspectionFormRepository.adjustRollup(
+                key, total.forms, total.reviewed, total.turnaroundMinutes));
+    }
+
+    /**
+     * Recompute all rollups from the forms, e.g. after data was changed outside the application
+     * @return The number of rollup rows
+     */
+    @Transactional
+    public int rebuild() {
+        return inspectionFormRepository.rebuildRollups();
+    }
+
+    private String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static class Totals {
+        private long forms;
+        private long reviewed;
+        private double turnaroundMinutes;
+    }
+
+    public record Contribution(RollupKey key, boolean reviewed, double turnaroundMinutes) {
+    }
+}
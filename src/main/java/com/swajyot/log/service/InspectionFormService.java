@@ -1,41 +1,121 @@
 package com.swajyot.log.service;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vladmihalcea.hibernate.type.util.ObjectMapperWrapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.swajyot.log.config.CacheConfig;
+import com.swajyot.log.model.BatchTransitionResult;
+import com.swajyot.log.model.Characteristic;
+import com.swajyot.log.model.CursorPage;
+import com.swajyot.log.model.FormTransition;
 import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.model.InspectionFormSummary;
+import com.swajyot.log.model.Lacquer;
+import com.swajyot.log.model.VersionedElement;
+import com.swajyot.log.repository.FormElementList;
+import com.swajyot.log.repository.FormTextField;
+import com.swajyot.log.repository.InspectionFormElementRepository.ElementChange;
 import com.swajyot.log.repository.InspectionFormRepository;
+import com.swajyot.log.repository.InspectionFormWorkflowRepository.TransitionRow;
+import org.springframework.data.domain.PageRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "inspection.form.service", histogram = true)
 public class InspectionFormService {
 
     private final InspectionFormRepository inspectionFormRepository;
-
-    // Constants for document number format
-    private static final String DOC_PREFIX = "AGI-APR-";
-    private static final Pattern DOC_NUMBER_PATTERN = Pattern.compile(DOC_PREFIX + "(\\d+)-(\\d+)");
+    private final DocumentNumberAllocator documentNumberAllocator;
+    private final InspectionFormPdfCache pdfCache;
+    private final InspectionFormRollupService rollupService;
+    private final InspectionFormHistoryService historyService;
+    private final InspectionFormQueryCache queryCache;
+    private final InspectionFormMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    // Paging limits for the summary listings
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Upper bound used as the "previous date" for the first page of a date-range listing
+    private static final LocalDate CURSOR_MAX_DATE = LocalDate.of(9999, 12, 31);
+    // Typeahead suggestion limits
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // Fields owned by the workflow endpoints or the persistence layer, which a PATCH may not set
+    private static final Set<String> PATCH_PROTECTED_FIELDS = Set.of(
+            "id", "status", "submittedBy", "submittedAt", "reviewedBy", "reviewedAt", "updatedAt", "version");
 
     public List<InspectionForm> getAllForms() {
         return inspectionFormRepository.findAll();
     }
 
+    /**
+     * Read-through cached (see CacheConfig); the returned form may be shared and must not be modified.
+     * Calls from within this class bypass the cache, so write paths always change a freshly loaded form.
+     * Loads are synchronized per id, so an eviction after a commit can't be overtaken by a load that
+     * read the form before it.
+     */
+    @Cacheable(cacheNames = CacheConfig.FORMS, key = "#id", sync = true)
     public InspectionForm getFormById(Long id) {
         return inspectionFormRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Inspection Form not found with id: " + id));
     }
 
+    /**
+     * Load a form to change it, checking that it is still at the version the change was based on.
+     * A null expected version skips the check; concurrent writers are still caught by @Version on flush.
+     * @throws FormVersionConflictException if the form has been changed since that version
+     */
+    private InspectionForm getFormForUpdate(Long id, Long expectedVersion) {
+        InspectionForm form = getFormById(id);
+        if (expectedVersion != null && !expectedVersion.equals(form.getVersion())) {
+            throw new FormVersionConflictException(form, expectedVersion);
+        }
+        return form;
+    }
+
+    // The status and date-range listings are the dashboards' hot queries. Their ids and summary pages
+    // are cached until a change invalidates them (see InspectionFormQueryCache); the forms themselves
+    // come from the entity cache when the cached copy still matches the listing.
+
     public List<InspectionForm> getFormsByStatus(InspectionForm.FormStatus status) {
-        return inspectionFormRepository.findByStatus(status);
+        List<Long> ids = queryCache.getForStatus(status, "idsByStatus",
+                () -> List.copyOf(inspectionFormRepository.findIdsByStatus(status)));
+        return queryCache.resolveForms(ids, form -> form.getStatus() == status, inspectionFormRepository::findAllById);
     }
 
     public List<InspectionForm> getFormsBySubmitter(String submittedBy) {
@@ -47,57 +127,247 @@ public class InspectionFormService {
     }
 
     public List<InspectionForm> getFormsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return inspectionFormRepository.findByInspectionDateBetween(startDate, endDate);
+        List<Long> ids = queryCache.get("idsByInspectionDate",
+                () -> List.copyOf(inspectionFormRepository.findIdsByInspectionDateBetween(startDate, endDate)),
+                startDate, endDate);
+        return queryCache.resolveForms(ids,
+                form -> form.getInspectionDate() != null
+                        && !form.getInspectionDate().isBefore(startDate) && !form.getInspectionDate().isAfter(endDate),
+                inspectionFormRepository::findAllById);
+    }
+
+    public CursorPage<InspectionFormSummary> getFormSummaries(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long afterId = decodeCursorId(cursor);
+        return toCursorPage(inspectionFormRepository.findSummaries(afterId, PageRequest.ofSize(pageSize + 1)), pageSize);
+    }
+
+    public CursorPage<InspectionFormSummary> getFormSummariesByStatus(InspectionForm.FormStatus status, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long afterId = decodeCursorId(cursor);
+        return queryCache.getForStatus(status, "summariesByStatus",
+                () -> toCursorPage(inspectionFormRepository.findSummariesByStatus(status, afterId, PageRequest.ofSize(pageSize + 1)), pageSize),
+                afterId, pageSize);
+    }
+
+    public CursorPage<InspectionFormSummary> getFormSummariesBySubmitter(String submittedBy, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long afterId = decodeCursorId(cursor);
+        return toCursorPage(inspectionFormRepository.findSummariesBySubmittedBy(submittedBy, afterId, PageRequest.ofSize(pageSize + 1)), pageSize);
+    }
+
+    public CursorPage<InspectionFormSummary> getFormSummariesByReviewer(String reviewedBy, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long afterId = decodeCursorId(cursor);
+        return toCursorPage(inspectionFormRepository.findSummariesByReviewedBy(reviewedBy, afterId, PageRequest.ofSize(pageSize + 1)), pageSize);
+    }
+
+    public CursorPage<InspectionFormSummary> getFormSummariesByDateRange(LocalDate startDate, LocalDate endDate, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        LocalDate afterDate = CURSOR_MAX_DATE;
+        Long afterId = Long.MAX_VALUE;
+        String[] parts = decodeCursor(cursor);
+        if (parts != null) {
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                afterDate = LocalDate.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        LocalDate pageAfterDate = afterDate;
+        Long pageAfterId = afterId;
+        return queryCache.get("summariesByInspectionDate",
+                () -> toCursorPage(inspectionFormRepository.findSummariesByInspectionDateBetween(
+                        startDate, endDate, pageAfterDate, pageAfterId, PageRequest.ofSize(pageSize + 1)), pageSize),
+                startDate, endDate, afterDate, afterId, pageSize);
+    }
+
+    /**
+     * Forms using a lacquer that matches all given criteria, e.g. every form that used a recalled batch.
+     * Text criteria match exactly; the expiry window is inclusive and may be open on either side.
+     */
+    public CursorPage<InspectionFormSummary> searchByLacquer(String batchNo, String name, LocalDate expiryFrom,
+                                                             LocalDate expiryTo, String cursor, Integer size) {
+        String element = elementCriteria("batchNo", batchNo, "name", name);
+        if (element == null && expiryFrom == null && expiryTo == null) {
+            throw new IllegalArgumentException("At least one lacquer search criterion is required");
+        }
+        int pageSize = resolvePageSize(size);
+        List<Long> ids = inspectionFormRepository.findIdsByLacquer(
+                element, expiryFrom, expiryTo, decodeCursorId(cursor), pageSize + 1);
+        return toCursorPage(findSummariesByIds(ids), pageSize);
+    }
+
+    /**
+     * Forms with a characteristic matching the given name and/or observation exactly,
+     * e.g. every "MEK Test" with observation "Not OK".
+     */
+    public CursorPage<InspectionFormSummary> searchByCharacteristic(String name, String observation,
+                                                                    String cursor, Integer size) {
+        String element = elementCriteria("name", name, "observation", observation);
+        if (element == null) {
+            throw new IllegalArgumentException("At least one characteristic search criterion is required");
+        }
+        int pageSize = resolvePageSize(size);
+        List<Long> ids = inspectionFormRepository.findIdsByCharacteristic(element, decodeCursorId(cursor), pageSize + 1);
+        return toCursorPage(findSummariesByIds(ids), pageSize);
+    }
+
+    /**
+     * Ranked fuzzy search over product, customer and/or variant (all three when fields is empty).
+     * Results are ordered by relevance, so the cursor holds a result offset rather than a key.
+     */
+    public CursorPage<InspectionFormSummary> searchText(String query, Set<FormTextField> fields, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        int pageSize = resolvePageSize(size);
+        int offset = decodeOffsetCursor(cursor);
+        Set<FormTextField> searchFields = fields == null || fields.isEmpty() ? EnumSet.allOf(FormTextField.class) : fields;
+        List<Long> ids = inspectionFormRepository.findIdsByText(query.trim(), searchFields, offset, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+        // Summaries come back in id order; restore the ranking
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<InspectionFormSummary> items = new ArrayList<>(findSummariesByIds(ids));
+        items.sort(Comparator.comparing(summary -> rank.get(summary.getId())));
+        String nextCursor = hasMore ? encodeOffsetCursor(offset + pageSize) : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Typeahead values for one field: prefix matches first, then close fuzzy matches
+     */
+    public List<String> suggestValues(FormTextField field, String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        int max = limit == null || limit <= 0 ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        return inspectionFormRepository.suggestValues(field, prefix.trim(), max);
     }
 
     /**
-     * Generates a document number in the format AGI-APR-YY-X
-     * where YY is the last two digits of the current year
-     * and X is a sequential number that increments for each document in the current year
+     * JSON object of the given field/value pairs that are not null, used as a containment
+     * pattern for list elements, or null if all values are null
      */
-    private String generateDocumentNumber() {
-        // Get current year's last two digits
-        int currentYear = LocalDate.now().getYear();
-        String yearSuffix = String.valueOf(currentYear).substring(2);
-
-        // Find the latest document number for the current year
-        String yearPrefix = DOC_PREFIX + yearSuffix + "-";
-
-        // Find all documents matching the pattern for this year
-        List<InspectionForm> formsThisYear = inspectionFormRepository.findByDocumentNoStartingWith(yearPrefix);
-
-        int maxSequence = 0;
-
-        // Find the highest sequence number
-        for (InspectionForm form : formsThisYear) {
-            Matcher matcher = DOC_NUMBER_PATTERN.matcher(form.getDocumentNo());
-            if (matcher.matches()) {
-                String yearPart = matcher.group(1);
-                String sequencePart = matcher.group(2);
-
-                // Only process if the year matches
-                if (yearPart.equals(yearSuffix)) {
-                    try {
-                        int sequence = Integer.parseInt(sequencePart);
-                        if (sequence > maxSequence) {
-                            maxSequence = sequence;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Skip invalid format
-                    }
-                }
+    private String elementCriteria(String... fieldsAndValues) {
+        ObjectNode element = objectMapper.createObjectNode();
+        for (int i = 0; i < fieldsAndValues.length; i += 2) {
+            if (fieldsAndValues[i + 1] != null) {
+                element.put(fieldsAndValues[i], fieldsAndValues[i + 1]);
             }
         }
+        return element.isEmpty() ? null : element.toString();
+    }
+
+    private List<InspectionFormSummary> findSummariesByIds(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : inspectionFormRepository.findSummariesByIdIn(ids);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Trims the one-row lookahead off a keyset query result and builds the cursor for the next page.
+     * The cursor is the (inspectionDate, id) of the last row, so it works for every listing order.
+     */
+    private CursorPage<InspectionFormSummary> toCursorPage(List<InspectionFormSummary> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<InspectionFormSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            InspectionFormSummary last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getInspectionDate(), last.getId());
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    private String encodeCursor(LocalDate inspectionDate, Long id) {
+        String raw = (inspectionDate != null ? inspectionDate.toString() : "") + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-        // Increment sequence for new document
-        int newSequence = maxSequence + 1;
+    private String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private String encodeOffsetCursor(int offset) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("@" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int decodeOffsetCursor(String cursor) {
+        String[] parts = decodeCursor(cursor);
+        if (parts == null) {
+            return 0;
+        }
+        try {
+            if (parts.length != 1 || !parts[0].startsWith("@")) {
+                throw new NumberFormatException();
+            }
+            int offset = Integer.parseInt(parts[0].substring(1));
+            if (offset < 0) {
+                throw new NumberFormatException();
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
 
-        // Format the document number
-        return DOC_PREFIX + yearSuffix + "-" + newSequence;
+    private Long decodeCursorId(String cursor) {
+        String[] parts = decodeCursor(cursor);
+        if (parts == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(parts[parts.length - 1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
     }
 
     @Transactional
+    @CachePut(cacheNames = CacheConfig.FORMS, key = "#result.id")
     public InspectionForm createForm(InspectionForm form) {
+        boolean numberSupplied = form.getDocumentNo() != null && !form.getDocumentNo().isEmpty();
+        applyNewFormDefaults(form);
+        InspectionForm saved = inspectionFormRepository.save(form);
+        metrics.recordJsonbSizes(saved);
+        rollupService.apply(null, rollupService.contributionOf(saved));
+        historyService.recordCreated(saved);
+        if (numberSupplied) {
+            documentNumberAllocator.advancePast(saved.getDocumentNo());
+        }
+        return saved;
+    }
+
+    /**
+     * Fill in the defaults of a form about to be created, including a document number if it has none
+     */
+    void applyNewFormDefaults(InspectionForm form) {
+        // New forms start at version 0 whatever the client sent
+        form.setVersion(null);
+
         // Set default status if not provided
         if (form.getStatus() == null) {
             form.setStatus(InspectionForm.FormStatus.DRAFT);
@@ -105,7 +375,7 @@ public class InspectionFormService {
 
         // Generate document number if not provided or empty
         if (form.getDocumentNo() == null || form.getDocumentNo().isEmpty()) {
-            form.setDocumentNo(generateDocumentNumber());
+            form.setDocumentNo(documentNumberAllocator.nextDocumentNumber());
         }
 
         // Set default values for dates if not provided
@@ -121,13 +391,20 @@ public class InspectionFormService {
         if (form.getIssuanceNo() == null || form.getIssuanceNo().isEmpty()) {
             form.setIssuanceNo("00");
         }
-
-        return inspectionFormRepository.save(form);
     }
 
+    /**
+     * Replace the editable fields of a form. The expected version comes from If-Match or,
+     * failing that, from the version in the submitted form.
+     */
     @Transactional
-    public InspectionForm updateForm(Long id, InspectionForm updatedForm) {
-        InspectionForm existingForm = getFormById(id);
+    @CachePut(cacheNames = CacheConfig.FORMS, key = "#id")
+    public InspectionForm updateForm(Long id, InspectionForm updatedForm, Long expectedVersion) {
+        InspectionForm existingForm = getFormForUpdate(id,
+                expectedVersion != null ? expectedVersion : updatedForm.getVersion());
+        InspectionFormRollupService.Contribution before = rollupService.contributionOf(existingForm);
+        ObjectNode snapshot = historyService.snapshot(existingForm);
+        String previousDocumentNo = existingForm.getDocumentNo();
 
         // Update the existing form fields with the new values
         existingForm.setDocumentNo(updatedForm.getDocumentNo());
@@ -155,40 +432,342 @@ public class InspectionFormService {
         existingForm.setFinalApprovalTime(updatedForm.getFinalApprovalTime());
         existingForm.setComments(updatedForm.getComments());
 
-        return inspectionFormRepository.save(existingForm);
+        // Flushed here so the history records the new version
+        InspectionForm saved = inspectionFormRepository.saveAndFlush(existingForm);
+        metrics.recordJsonbSizes(saved);
+        rollupService.apply(before, rollupService.contributionOf(saved));
+        historyService.recordUpdated(snapshot, saved);
+        pdfCache.invalidate(id);
+        advanceIfRenumbered(previousDocumentNo, saved);
+        return saved;
+    }
+
+    private void advanceIfRenumbered(String previousDocumentNo, InspectionForm saved) {
+        if (!Objects.equals(previousDocumentNo, saved.getDocumentNo())) {
+            documentNumberAllocator.advancePast(saved.getDocumentNo());
+        }
     }
 
+    /**
+     * Apply a JSON Merge Patch (RFC 7396) to a form. Only the fields present in the patch are
+     * changed, and a null value clears a field. Lists such as lacquers are replaced as a whole.
+     * @throws IllegalArgumentException if the patch is not an object, names an unknown field
+     *         or tries to set a workflow-managed field
+     */
     @Transactional
-    public InspectionForm submitForm(Long id, String submittedBy) {
-        InspectionForm form = getFormById(id);
-        form.setStatus(InspectionForm.FormStatus.SUBMITTED);
-        form.setSubmittedBy(submittedBy);
-        form.setSubmittedAt(LocalDateTime.now());
-        return inspectionFormRepository.save(form);
+    @CachePut(cacheNames = CacheConfig.FORMS, key = "#id")
+    public InspectionForm patchForm(Long id, JsonNode patch, Long expectedVersion) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+        Iterator<String> fields = patch.fieldNames();
+        while (fields.hasNext()) {
+            String field = fields.next();
+            if (PATCH_PROTECTED_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+        }
+
+        InspectionForm existingForm = getFormForUpdate(id, expectedVersion);
+        InspectionFormRollupService.Contribution before = rollupService.contributionOf(existingForm);
+        ObjectNode snapshot = historyService.snapshot(existingForm);
+        String previousDocumentNo = existingForm.getDocumentNo();
+        try {
+            objectMapper.readerForUpdating(existingForm)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getMessage());
+        }
+
+        // Dirty checking plus @DynamicUpdate limits the UPDATE to the columns that actually changed
+        InspectionForm saved = inspectionFormRepository.saveAndFlush(existingForm);
+        metrics.recordJsonbSizes(saved);
+        rollupService.apply(before, rollupService.contributionOf(saved));
+        historyService.recordUpdated(snapshot, saved);
+        pdfCache.invalidate(id);
+        advanceIfRenumbered(previousDocumentNo, saved);
+        return saved;
     }
 
+    // Element-level updates of the lacquer and characteristic lists. These run as single
+    // in-database JSONB statements and never load the form. Given an expected version, a change
+    // only applies to the form at that version (see FormVersionConflictException).
+
     @Transactional
-    public InspectionForm approveForm(Long id, String reviewedBy, String comments) {
-        InspectionForm form = getFormById(id);
-        form.setStatus(InspectionForm.FormStatus.APPROVED);
-        form.setReviewedBy(reviewedBy);
-        form.setReviewedAt(LocalDateTime.now());
-        form.setComments(comments);
-        return inspectionFormRepository.save(form);
+    public Optional<VersionedElement<Lacquer>> addLacquer(Long formId, Lacquer lacquer, Long expectedVersion) {
+        return appendElement(formId, FormElementList.LACQUERS, lacquer, Lacquer.class, expectedVersion);
     }
 
     @Transactional
-    public InspectionForm rejectForm(Long id, String reviewedBy, String comments) {
-        InspectionForm form = getFormById(id);
-        form.setStatus(InspectionForm.FormStatus.REJECTED);
-        form.setReviewedBy(reviewedBy);
-        form.setReviewedAt(LocalDateTime.now());
-        form.setComments(comments);
-        return inspectionFormRepository.save(form);
+    public Optional<VersionedElement<Lacquer>> patchLacquer(Long formId, long lacquerId, JsonNode patch,
+                                                             Long expectedVersion) {
+        return patchElement(formId, FormElementList.LACQUERS, lacquerId, patch, Lacquer.class, expectedVersion);
+    }
+
+    @Transactional
+    public Optional<Long> removeLacquer(Long formId, long lacquerId, Long expectedVersion) {
+        return removeElement(formId, FormElementList.LACQUERS, lacquerId, Lacquer.class, expectedVersion);
+    }
+
+    @Transactional
+    public Optional<VersionedElement<Characteristic>> addCharacteristic(Long formId, Characteristic characteristic,
+                                                                        Long expectedVersion) {
+        return appendElement(formId, FormElementList.CHARACTERISTICS, characteristic, Characteristic.class, expectedVersion);
+    }
+
+    @Transactional
+    public Optional<VersionedElement<Characteristic>> patchCharacteristic(Long formId, long characteristicId,
+                                                                          JsonNode patch, Long expectedVersion) {
+        return patchElement(formId, FormElementList.CHARACTERISTICS, characteristicId, patch, Characteristic.class,
+                expectedVersion);
+    }
+
+    @Transactional
+    public Optional<Long> removeCharacteristic(Long formId, long characteristicId, Long expectedVersion) {
+        return removeElement(formId, FormElementList.CHARACTERISTICS, characteristicId, Characteristic.class,
+                expectedVersion);
+    }
+
+    private <T> Optional<VersionedElement<T>> appendElement(Long formId, FormElementList list, T element, Class<T> type,
+                                                            Long expectedVersion) {
+        // Elements are stored in the JSONB column's own format, which differs from the REST API's date format
+        String json = ObjectMapperWrapper.INSTANCE.toString(element);
+        metrics.recordElementSize(list, json);
+        ElementChange change = inspectionFormRepository.appendElement(formId, list, json, expectedVersion, LocalDateTime.now());
+        if (change == null) {
+            checkElementChangeVersion(formId, expectedVersion);
+            if (inspectionFormRepository.existsById(formId)) {
+                throw new DuplicateElementIdException(formId, list);
+            }
+            return Optional.empty();
+        }
+        T added = ObjectMapperWrapper.INSTANCE.fromString(change.after(), type);
+        historyService.recordElementChanged(formId, list, null, null, added, change);
+        pdfCache.invalidate(formId);
+        return Optional.of(new VersionedElement<>(added, change.version()));
+    }
+
+    private <T> Optional<VersionedElement<T>> patchElement(Long formId, FormElementList list, long elementId, JsonNode patch,
+                                                           Class<T> type, Long expectedVersion) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object");
+        }
+        if (patch.has("id")) {
+            throw new IllegalArgumentException("Field cannot be patched: id");
+        }
+
+        // Parse with the API format, then re-serialize only the supplied fields in the stored format
+        ObjectNode storedPatch;
+        try {
+            T parsed = objectMapper.readerFor(type)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(patch);
+            storedPatch = ObjectMapperWrapper.INSTANCE.getObjectMapper().valueToTree(parsed);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getMessage());
+        }
+        List<String> fields = new ArrayList<>();
+        patch.fieldNames().forEachRemaining(fields::add);
+        storedPatch.retain(fields);
+        for (String field : fields) {
+            if (patch.get(field).isNull()) {
+                storedPatch.putNull(field);
+            }
+        }
+
+        String json = storedPatch.toString();
+        metrics.recordElementSize(list, json);
+        ElementChange change = inspectionFormRepository.mergeElement(formId, list, elementId, json, expectedVersion,
+                LocalDateTime.now());
+        if (change == null) {
+            checkElementChangeVersion(formId, expectedVersion);
+            return Optional.empty();
+        }
+        T patched = ObjectMapperWrapper.INSTANCE.fromString(change.after(), type);
+        historyService.recordElementChanged(formId, list, elementId,
+                ObjectMapperWrapper.INSTANCE.fromString(change.before(), type), patched, change);
+        pdfCache.invalidate(formId);
+        return Optional.of(new VersionedElement<>(patched, change.version()));
+    }
+
+    /**
+     * @return The form's version after the removal, or empty if the form or element does not exist
+     */
+    private Optional<Long> removeElement(Long formId, FormElementList list, long elementId, Class<?> type,
+                                         Long expectedVersion) {
+        ElementChange change = inspectionFormRepository.removeElement(formId, list, elementId, expectedVersion,
+                LocalDateTime.now());
+        if (change == null) {
+            checkElementChangeVersion(formId, expectedVersion);
+            return Optional.empty();
+        }
+        historyService.recordElementChanged(formId, list, elementId,
+                ObjectMapperWrapper.INSTANCE.fromString(change.before(), type), null, change);
+        pdfCache.invalidate(formId);
+        return Optional.of(change.version());
+    }
+
+    /**
+     * For an element change that matched no form row: tells a form that has moved past the expected
+     * version apart from a missing form or element, which is only worth a query when a version was given.
+     * @throws FormVersionConflictException if the form exists at another version than expected
+     */
+    private void checkElementChangeVersion(Long formId, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return;
+        }
+        inspectionFormRepository.findById(formId)
+                .filter(form -> !expectedVersion.equals(form.getVersion()))
+                .ifPresent(form -> {
+                    throw new FormVersionConflictException(form, expectedVersion);
+                });
+    }
+
+    // Workflow actions. Each is a single conditional UPDATE that only applies if the form is in one of
+    // the transition's source states (see FormTransition) and, given If-Match, still at the expected version.
+    // The resulting form is cached on commit, so opening it or rendering its PDF next needs no query.
+
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.FORMS, key = "#id")
+    public InspectionForm submitForm(Long id, String submittedBy, Long expectedVersion) {
+        return transition(id, FormTransition.SUBMIT, submittedBy, null, expectedVersion);
+    }
+
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.FORMS, key = "#id")
+    public InspectionForm approveForm(Long id, String reviewedBy, String comments, Long expectedVersion) {
+        return transition(id, FormTransition.APPROVE, reviewedBy, comments, expectedVersion);
+    }
+
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.FORMS, key = "#id")
+    public InspectionForm rejectForm(Long id, String reviewedBy, String comments, Long expectedVersion) {
+        return transition(id, FormTransition.REJECT, reviewedBy, comments, expectedVersion);
+    }
+
+    /**
+     * @throws FormVersionConflictException if the form is no longer at the expected version
+     * @throws FormTransitionException if the transition is not allowed from the form's current state
+     */
+    private InspectionForm transition(Long id, FormTransition transition, String actor, String comments,
+                                      Long expectedVersion) {
+        transition.checkActor(actor);
+        // The column holds microseconds; truncating keeps the form built below equal to the stored row
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        TransitionRow row = inspectionFormRepository
+                .transition(id, transition, actor, comments, expectedVersion, now)
+                .orElseThrow(() -> new RuntimeException("Inspection Form not found with id: " + id));
+        if (!row.updated()) {
+            if (expectedVersion != null && expectedVersion != row.version()) {
+                throw new FormVersionConflictException(getFormById(id), expectedVersion);
+            }
+            metrics.countTransition(transition, row.status(), false);
+            throw new FormTransitionException(id, transition, row.status());
+        }
+        applyTransition(transition, row, actor, comments);
+        return transitioned(transition, row, actor, comments, now);
+    }
+
+    /**
+     * The form after a transition. The update only sets the workflow columns, so if the entity cache
+     * holds the form at the version the transition started from, a copy of it with those columns
+     * applied is the new form and it isn't read back. Otherwise it is loaded.
+     */
+    private InspectionForm transitioned(FormTransition transition, TransitionRow row, String actor, String comments,
+                                        LocalDateTime now) {
+        InspectionForm cached = cacheManager.getCache(CacheConfig.FORMS).get(row.id(), InspectionForm.class);
+        if (cached == null || cached.getVersion() == null || cached.getVersion() != row.version() - 1) {
+            return getFormById(row.id());
+        }
+        // Cached forms are shared, so change a copy
+        InspectionForm form = objectMapper.convertValue(cached, InspectionForm.class);
+        if (transition.isReview()) {
+            form.setReviewedBy(actor);
+            form.setComments(comments);
+        } else {
+            form.setSubmittedBy(actor);
+        }
+        form.setStatus(row.status());
+        form.setSubmittedAt(row.submittedAt());
+        form.setReviewedAt(row.reviewedAt());
+        form.setUpdatedAt(now);
+        form.setVersion(row.version());
+        return form;
+    }
+
+    // Batch workflow actions. Each runs as a single locking UPDATE over all ids; forms that are not
+    // in a state the action applies to are left alone and reported as skipped.
+
+    @Transactional
+    public BatchTransitionResult submitForms(List<Long> ids, String submittedBy) {
+        return transitionAll(ids, FormTransition.SUBMIT, submittedBy, null);
+    }
+
+    @Transactional
+    public BatchTransitionResult approveForms(List<Long> ids, String reviewedBy, String comments) {
+        return transitionAll(ids, FormTransition.APPROVE, reviewedBy, comments);
+    }
+
+    @Transactional
+    public BatchTransitionResult rejectForms(List<Long> ids, String reviewedBy, String comments) {
+        return transitionAll(ids, FormTransition.REJECT, reviewedBy, comments);
+    }
+
+    private BatchTransitionResult transitionAll(List<Long> ids, FormTransition transition, String actor, String comments) {
+        if (ids == null || ids.isEmpty() || ids.contains(null)) {
+            throw new IllegalArgumentException("A non-empty list of form ids is required");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " forms can be changed at once");
+        }
+        transition.checkActor(actor);
+
+        Map<Long, TransitionRow> rows = new HashMap<>();
+        for (TransitionRow row : inspectionFormRepository.transitionAll(
+                uniqueIds, transition, actor, comments, LocalDateTime.now())) {
+            rows.put(row.id(), row);
+        }
+
+        BatchTransitionResult result = new BatchTransitionResult();
+        for (Long id : uniqueIds) {
+            TransitionRow row = rows.get(id);
+            if (row == null) {
+                result.setNotFound(result.getNotFound() + 1);
+                result.getResults().add(new BatchTransitionResult.Item(id, BatchTransitionResult.Outcome.NOT_FOUND, null));
+            } else if (row.updated()) {
+                applyTransition(transition, row, actor, comments);
+                result.setUpdated(result.getUpdated() + 1);
+                result.getResults().add(new BatchTransitionResult.Item(id, BatchTransitionResult.Outcome.UPDATED, row.status()));
+            } else {
+                metrics.countTransition(transition, row.status(), false);
+                result.setSkipped(result.getSkipped() + 1);
+                result.getResults().add(new BatchTransitionResult.Item(id, BatchTransitionResult.Outcome.SKIPPED, row.status()));
+            }
+        }
+        return result;
+    }
+
+    // Bring the rollups, history and PDF cache in line with a transition applied in the database
+    private void applyTransition(FormTransition transition, TransitionRow row, String actor, String comments) {
+        rollupService.apply(
+                rollupService.contributionOf(row.inspectionDate(), row.lineNo(), row.shift(), row.product(),
+                        row.oldStatus(), row.oldSubmittedAt(), row.oldReviewedAt()),
+                rollupService.contributionOf(row.inspectionDate(), row.lineNo(), row.shift(), row.product(),
+                        row.status(), row.submittedAt(), row.reviewedAt()));
+        historyService.recordTransition(transition, row, actor, comments);
+        metrics.countTransition(transition, row.oldStatus(), true);
+        pdfCache.invalidate(row.id());
     }
 
     @Transactional
     public void deleteForm(Long id) {
-        inspectionFormRepository.deleteById(id);
+        inspectionFormRepository.findById(id).ifPresent(form -> {
+            rollupService.apply(rollupService.contributionOf(form), null);
+            historyService.recordDeleted(form);
+            inspectionFormRepository.delete(form);
+        });
+        pdfCache.invalidate(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionFormStats;
+import com.swajyot.log.repository.InspectionFormRepository;
+import com.swajyot.log.repository.InspectionFormStatsRepository.StatusCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dashboard statistics, read from the daily rollups so a year of data is a few hundred rows
+ * rather than a scan of the forms table.
+ */
+@Service
+@RequiredArgsConstructor
+public class InspectionFormStatsService {
+
+    private final InspectionFormRepository inspectionFormRepository;
+
+    /**
+     * Status counts, per-day/shift/line/product breakdowns and review turnaround
+     * for the forms inspected between the given dates (inclusive)
+     * @param percentiles Also compute exact turnaround percentiles and maximum. These can't be
+     *                    derived from the rollups, so this reads the reviewed forms in the range.
+     */
+    public InspectionFormStats getStats(LocalDate startDate, LocalDate endDate, boolean percentiles) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        InspectionFormStats stats = new InspectionFormStats();
+        stats.setStartDate(startDate);
+        stats.setEndDate(endDate);
+
+        Map<String, InspectionFormStats.Breakdown> days = new LinkedHashMap<>();
+        Map<String, InspectionFormStats.Breakdown> shifts = new LinkedHashMap<>();
+        Map<String, InspectionFormStats.Breakdown> lines = new LinkedHashMap<>();
+        Map<String, InspectionFormStats.Breakdown> products = new LinkedHashMap<>();
+        for (StatusCount row : inspectionFormRepository.countByStatus(startDate, endDate)) {
+            switch (row.dimension()) {
+                case TOTAL -> {
+                    stats.setTotal(stats.getTotal() + row.count());
+                    if (row.status() != null) {
+                        stats.getStatusCounts().put(row.status(), row.count());
+                    }
+                }
+                case DAY -> addTo(days, row);
+                case SHIFT -> addTo(shifts, row);
+                case LINE -> addTo(lines, row);
+                case PRODUCT -> addTo(products, row);
+            }
+        }
+        stats.getByDay().addAll(days.values());
+        stats.getByShift().addAll(shifts.values());
+        stats.getByLine().addAll(lines.values());
+        stats.getByProduct().addAll(products.values());
+        stats.setTurnaround(percentiles
+                ? inspectionFormRepository.findTurnaround(startDate, endDate)
+                : inspectionFormRepository.sumTurnaround(startDate, endDate));
+        return stats;
+    }
+
+    private void addTo(Map<String, InspectionFormStats.Breakdown> breakdowns, StatusCount row) {
+        // Forms without a shift, line or product are grouped under an empty key
+        InspectionFormStats.Breakdown breakdown = breakdowns.computeIfAbsent(row.key(), key -> {
+            InspectionFormStats.Breakdown created = new InspectionFormStats.Breakdown();
+            created.setKey(key);
+            return created;
+        });
+        breakdown.setTotal(breakdown.getTotal() + row.count());
+        if (row.status() != null) {
+            breakdown.getStatusCounts().put(row.status(), row.count());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.swajyot.log.service;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+
+/**
+ * Loads the fonts and images used by the inspection form PDFs once at startup.
+ *
+ * Font programs and decoded image data are immutable once built and are shared by all documents.
+ * A PdfFont belongs to a single PdfDocument, so callers get a fresh one per document
+ * from the shared font program.
+ */
+@Slf4j
+@Component
+public class PdfResourceCache {
+
+    private static final String LOGO_PATH = "static/images/agilogo.png";
+    private static final String QA_SIGNATURE_PATH = "static/images/QASign.png";
+    private static final String OPERATOR_SIGNATURE_PATH = "static/images/OperatorSign.png";
+
+    // Placeholder used when the logo is missing from the classpath
+    private static final String PLACEHOLDER_LOGO = "iVBORw0KGgoAAAANSUhEUgAAAGQAAABkCAIAAAD/gAIDAAAAGXRFWHRTb2Z0d2FyZQBBZG9iZSBJbWFnZVJlYWR5ccllPAAAAyJpVFh0WE1MOmNvbS5hZG9iZS54bXAAAAAAADw/eHBhY2tldCBiZWdpbj0i77u/IiBpZD0iVzVNME1wQ2VoaUh6cmVTek5UY3prYzlkIj8+IDx4OnhtcG1ldGEgeG1sbnM6eD0iYWRvYmU6bnM6bWV0YS8iIHg6eG1wdGs9IkFkb2JlIFhNUCBDb3JlIDUuMy1jMDExIDY2LjE0NTY2MSwgMjAxMi8wMi8wNi0xNDo1NjoyNyAgICAgICAgIj4gPHJkZjpSREYgeG1sbnM6cmRmPSJodHRwOi8vd3d3LnczLm9yZy8xOTk5LzAyLzIyLXJkZi1zeW50YXgtbnMjIj4gPHJkZjpEZXNjcmlwdGlvbiByZGY6YWJvdXQ9IiIgeG1sbnM6eG1wPSJodHRwOi8vbnMuYWRvYmUuY29tL3hhcC8xLjAvIiB4bWxuczp4bXBNTT0iaHR0cDovL25zLmFkb2JlLmNvbS94YXAvMS4wL21tLyIgeG1sbnM6c3RSZWY9Imh0dHA6Ly9ucy5hZG9iZS5jb20veGFwLzEuMC9zVHlwZS9SZXNvdXJjZVJlZiMiIHhtcDpDcmVhdG9yVG9vbD0iQWRvYmUgUGhvdG9zaG9wIENTNiAoV2luZG93cykiIHhtcE1NOkluc3RhbmNlSUQ9InhtcC5paWQ6NTkzRTlDQkUyMEU5MTFFQTk4RkNBRkJDODVCRTZCODMiIHhtcE1NOkRvY3VtZW50SUQ9InhtcC5kaWQ6NTkzRTlDQkYyMEU5MTFFQTk4RkNBRkJDODVCRTZCODMiPiA8eG1wTU06RGVyaXZlZEZyb20gc3RSZWY6aW5zdGFuY2VJRD0ieG1wLmlpZDo1OTNFOUNCQzIwRTkxMUVBOThGQ0FGQkM4NUJFNkI4MyIgc3RSZWY6ZG9jdW1lbnRJRD0ieG1wLmRpZDo1OTNFOUNCRDIwRTkxMUVBOThGQ0FGQkM4NUJFNkI4MyIvPiA8L3JkZjpEZXNjcmlwdGlvbj4gPC9yZGY6UkRGPiA8L3g6eG1wbWV0YT4gPD94cGFja2V0IGVuZD0iciI/PpR4Hs4AAAgISURBVHja7JxrbBRVFMfPnd3Z3S7d0pWWbYEi5VGMWAPxAZgoBsLDGISoRIN8IcaYKJ+MSvxgCD7wQwkJMTHRRGIk8YMJGk0kBIwvSDRCRMFAIgYUaAHb0hf7nN0ZzwxndnZ3Znfb6ba7c+C07cydu3vv/57//5x7Z2dNQggMx8IyTGAYtjBsYdjCsIVhC8MWhi0MWxi2MGxh2MKwhWELw9Yw1m/O/Q8tCyYzRGmNDaFQMDyQSuA4Dviv1BobAMdR39d1xDl3HOq6jmVNcM1fsdpaIgQIQQD5f5ybpYfRUCXTnE6nwHEyU2/JskgTQizLEkIEQRAEQRRFnudr7TEfQUF8JEl0Y5qZCDAGRifBp8rGRgXgNJUa4ZKlGK4Mm2dnWf1Q30VFAZqYikSOKoqqquGwlP8eRcQDaiiKarooBIDU1NQtXBiBJ0pUgJd7dRtlZQVwoQQRCvE8D/C6LsU1Lpu6D3A6nYbfG24QQjRNczgc+eVcVKLJ9wJSoWoaQC5aDYWigXUcL8t6NBp2OADPcznAo7RFIpFYLOZwOEzWa+DLTIJlZCSJPP5YcLYdXVYUzYz5KQfTGhoa7rrrruXLl4dCIT6vB2nLqxcfPnzY4XDMnDmTZxaVp6xlyGxRIqyUWM37UPkMiouyzJZjwc5SAyGkqmogEFixYsXZs2e//vprmyfzgBgIBJLJZHt7O0+ZYEUd/Pju6JBVNZ9FZctR/Lnvn3PZKQRnwTxDsJlM5vHHH+/r6/v6669nzJhhcXIFYrt27XrooYduvvlmi0t46Rlf5aZ7TU1NLpfL5XK5XE6n0+l0u9yiKAqiwPN8JpPq7e21Xu/sHwwN9RA1BKPBT4lrGlJVVVGUTCaTSCQGBgb6+vquX7/e39//2GOP9fb2fvXVV1OnTrUYzOXLl7/88st9+/ZZXMJLr3rNQ6FQU1NTe3t7W1vblClTmpubXS7XwEBU06QTJ46LSqdlcjfbR2CUPXsufXju8kBU5ngfPcUYERFtMElJDdHfTU1Nd9xxx6pVq7xe75YtW1577bXe3t6vvvrK7/fbOhRCyJYtWzZs2DA4ONjS0mIN3lJ8M6yt7e3tXbZs2Z133mm4UT7uTgYG0q9/8HXw/OnQgFf3+yBeIIXfGCf6FI2mqaZpiURiYGCAYqS72Lx58zPPPNPR0XHo0KG5c+dajOaLL75YuHDha6+9Zt2DJcs1TnS5XAsWLJg+fTohJJVKaZrW19d38eJFnuc9Hk9zc7PP5+N5LpWSXn75vS++unH8ZPrqNYUQJxUZzLVYVBcZGJEkSZKkdDqdTCYlSRoaGlIUJZ1O9/T0NDY2iqLY2dnZ1NRk8SDPnj27cePGl156ieOsXUMr9TqkiGR0Op3zrwk6nU6fz+f3+1taWnw+HyFEVbWvvz31ye7rv/xGYrEoz1MwR3wDwJFEMjk0NBSJRPr7+3/77bdLly4dOXLkp59+2r9//+HDh48dO3bhwoXVq1fbOk44HH7xxRfXrVvX0dFRJnhLzUKCINBhNZvNZrPZbDZL3a6RSCSRSPh8Po/HI8syn0yqv1+JZLME+xxYP+RCoUVcEgQhEAjU1dX5/f729vahUEgURa/X29LS4vF4RFGMRCLP/vPi3r1777nnnvr6enunef/99+fNm9fa2lpO9pVWDiw0TUskEocOHfrhhx8OHDhw5syZeDweDodvv/32OXPmdHV1zZ8/f+bMme3t7YIgIISu/9GPEKqwABYuXLh79+6DBw8+8MADtk7T3d39zjvvbNu2rZyA5tDq0UfpvtFRo/0qPVAGYkYs3QIkSQoGgx6PR5ZlVVUDgUBXV1ddXd3DDz+8cOHCu+++e8aMGTSfvnz5w2eeebOvbwivbCgEcIvIQnSZInrHFFWmU4uyVF31OBRDqMbmfz737LPPvvnmm7bwOXfu3IoVK372iy/+Y7J9Q7VuM7bZ5KweFiCErHcZFoYtbGHYGpO/sQ17U1i2MGwNM9vCsDVsYdi6dU+djb3FGSPQmTaEEPiKgZ1xS3WZ3M3TYolWKpXq6ur66aefEokE5y+Hxd66kKqqtbW1W7duraurKzmLLOqWTrx1dHQcP358586dhw4dunbtWiQSoYcZxeUv9s0OwGqz2fZAINCazWZDodCePXs2bdp0/vz5wf8M/q3QEYvF7r///s8++2zNmjXlxbJoQmiOAo7jescdXV1dXV1dUvCGJMmqqhVOY+B1TVOUTDQajUQidMuOvgY1Go1eunSpt7f3xhfBAl4QBLfb3dbWNnfuXJcrkM2SUEjNZAb46vCw7UYZ6DlkuZlKpaLRKN0NphuwiUQilUrRjdhMJiPLMj09lG7L0udOVFWVpolUKhWLxX7//ffz588fP3786tWrgAOcc4aosrLZrNvtnj17tsfzoN//XE3NQcDtZDxVMxCCeJ6SJfI8ouwHAoHW1laEkKqqkiTJ+g/dJyQAMpmMpmnG8ydkhGiaJkmSpmm6rhfevKF+ZTIZmn/Rj5woivRTPM+XdLiwJHK5XJqmXblyJS5qmYwqCIFQSMHYFwrpAKFQSBSCTqen+GlNYn72G31S/O7du2trazdu3Lht2zav12u1xWx8TjUe7+jo6O7unmTUxeO9oZBPEFprampPnz59cWAwEAjiKmIcaXdQHBs+Px/w+7xu97xw2F0mIUW7wTbRxQIw0VWcLcyMDVsYtjBsYdjCsIVhC8MWhi0MWxi2MGxh2MKwhWELw9Yw1n8CDAA+JuJxGAh5aQAAAABJRU5ErkJggg==";
+
+    private FontProgram regularFontProgram;
+    private FontProgram boldFontProgram;
+    private ImageData logo;
+    private ImageData qaSignature;
+    private ImageData operatorSignature;
+
+    @PostConstruct
+    public void load() throws IOException {
+        regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+        boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+
+        logo = loadImage(LOGO_PATH);
+        if (logo == null) {
+            logo = ImageDataFactory.create(Base64.getDecoder().decode(PLACEHOLDER_LOGO));
+        }
+        qaSignature = loadImage(QA_SIGNATURE_PATH);
+        operatorSignature = loadImage(OPERATOR_SIGNATURE_PATH);
+    }
+
+    /**
+     * Create the fonts and image XObjects for one PDF document. Every use of an image within
+     * that document refers to the same XObject, so each image is embedded only once.
+     */
+    public DocumentResources forDocument() {
+        return new DocumentResources(
+                createRegularFont(),
+                createBoldFont(),
+                new PdfImageXObject(logo),
+                qaSignature != null ? new PdfImageXObject(qaSignature) : null,
+                operatorSignature != null ? new PdfImageXObject(operatorSignature) : null);
+    }
+
+    public PdfFont createRegularFont() {
+        return PdfFontFactory.createFont(regularFontProgram);
+    }
+
+    public PdfFont createBoldFont() {
+        return PdfFontFactory.createFont(boldFontProgram);
+    }
+
+    public ImageData getLogo() {
+        return logo;
+    }
+
+    /**
+     * @return The QA signature image, or null if it could not be loaded
+     */
+    public ImageData getQaSignature() {
+        return qaSignature;
+    }
+
+    /**
+     * @return The operator signature image, or null if it could not be loaded
+     */
+    public ImageData getOperatorSignature() {
+        return operatorSignature;
+    }
+
+    /**
+     * Fonts and images bound to a single PDF document. The signature images are null
+     * if they could not be loaded.
+     */
+    public record DocumentResources(PdfFont font, PdfFont fontBold, PdfImageXObject logo,
+                                    PdfImageXObject qaSignature, PdfImageXObject operatorSignature) {
+    }
+
+    private ImageData loadImage(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return ImageDataFactory.create(in.readAllBytes());
+        } catch (Exception e) {
+            log.warn("Could not load PDF image {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+}
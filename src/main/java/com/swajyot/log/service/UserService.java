@@ -1,9 +1,14 @@
 package com.swajyot.log.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.swajyot.log.config.CacheConfig;
 import com.swajyot.log.model.User;
 import com.swajyot.log.repository.UserRepository;
 
@@ -11,6 +16,7 @@ import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "user.service", histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
@@ -19,11 +25,16 @@ public class UserService {
         return userRepository.findAll();
     }
     
+    // Lookups by id and username are cached (see CacheConfig). Writes evict both on commit;
+    // the username cache is cleared as a whole because the write methods only know the id.
+
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id")
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     }
     
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username")
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -44,6 +55,10 @@ public class UserService {
     }
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, allEntries = true)
+    })
     public User updateUser(Long id, User updatedUser) {
         User existingUser = getUserById(id);
         
@@ -59,11 +74,19 @@ public class UserService {
     }
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, allEntries = true)
+    })
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
     }
     
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_USERNAME, allEntries = true)
+    })
     public User toggleUserActive(Long id) {
         User user = getUserById(id);
         user.setActive(!user.isActive());
@@ -0,0 +1,58 @@
+-- Schema as previously generated by Hibernate's ddl-auto=update.
+-- Every statement is idempotent so databases created that way can be migrated in place.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    role       VARCHAR(255) NOT NULL CHECK (role IN ('OPERATOR', 'QA', 'AVP', 'MASTER')),
+    active     BOOLEAN      NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS inspection_forms (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_no         VARCHAR(255) NOT NULL,
+    issuance_no         VARCHAR(255),
+    issue_date          DATE,
+    reviewed_date       DATE,
+    page                VARCHAR(255),
+    prepared_by         VARCHAR(255),
+    approved_by         VARCHAR(255),
+    issued              VARCHAR(255),
+    inspection_date     DATE,
+    product             VARCHAR(255),
+    size_no             VARCHAR(255),
+    shift               VARCHAR(255),
+    variant             VARCHAR(255),
+    line_no             VARCHAR(255),
+    customer            VARCHAR(255),
+    sample_size         VARCHAR(255),
+    lacquers            JSONB,
+    characteristics     JSONB,
+    qa_executive        VARCHAR(255),
+    qa_signature        VARCHAR(255),
+    production_operator VARCHAR(255),
+    operator_signature  VARCHAR(255),
+    final_approval_time VARCHAR(255),
+    status              VARCHAR(255) CHECK (status IN ('DRAFT', 'SUBMITTED', 'APPROVED', 'REJECTED')),
+    submitted_by        VARCHAR(255),
+    submitted_at        TIMESTAMP(6),
+    reviewed_by         VARCHAR(255),
+    reviewed_at         TIMESTAMP(6),
+    comments            VARCHAR(255),
+    updated_at          TIMESTAMP(6),
+    CONSTRAINT uk_inspection_forms_document_no UNIQUE (document_no)
+);
+
+-- Added after the first deployments
+ALTER TABLE inspection_forms ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+
+CREATE TABLE IF NOT EXISTS document_sequences (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    prefix     VARCHAR(255) NOT NULL,
+    last_value BIGINT       NOT NULL,
+    CONSTRAINT uk_document_sequences_prefix UNIQUE (prefix)
+);
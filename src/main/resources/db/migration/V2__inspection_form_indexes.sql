@@ -0,0 +1,36 @@
+-- Indexes for the finder and listing queries in InspectionFormRepository.
+-- Built CONCURRENTLY so existing tables stay writable; Flyway runs this script outside a transaction.
+
+-- Status listings and summaries: status = ? [AND id < ?] ORDER BY id DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_status_id
+    ON inspection_forms (status, id);
+
+-- Export and archive filters: status = ? AND inspection_date BETWEEN ? AND ?
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_status_inspection_date
+    ON inspection_forms (status, inspection_date);
+
+-- Submitter and reviewer listings: submitted_by / reviewed_by = ? [AND id < ?] ORDER BY id DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_submitted_by_id
+    ON inspection_forms (submitted_by, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_reviewed_by_id
+    ON inspection_forms (reviewed_by, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_variant
+    ON inspection_forms (variant);
+
+-- Date-range listings ordered by (inspection_date, id) and the per-date shift report
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_inspection_date_id
+    ON inspection_forms (inspection_date, id);
+
+-- Prefix lookups on document numbers (LIKE 'AGI-APR-25-%'); the unique index can't serve
+-- LIKE under a non-C collation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_document_no_pattern
+    ON inspection_forms (document_no varchar_pattern_ops);
+
+-- Containment (@>) searches inside the JSONB lists
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_lacquers
+    ON inspection_forms USING gin (lacquers jsonb_path_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_characteristics
+    ON inspection_forms USING gin (characteristics jsonb_path_ops);
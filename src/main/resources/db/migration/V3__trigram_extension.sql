@@ -0,0 +1,2 @@
+-- Trigram matching for the fuzzy product/customer/variant search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,11 @@
+-- Trigram indexes for case-insensitive substring (LIKE '%x%') and similarity (<%) searches.
+-- The search queries compare against lower(column), so the indexes are on the same expression.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_product_trgm
+    ON inspection_forms USING gin (lower(product) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_customer_trgm
+    ON inspection_forms USING gin (lower(customer) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inspection_forms_variant_trgm
+    ON inspection_forms USING gin (lower(variant) gin_trgm_ops);
@@ -0,0 +1,26 @@
+-- Daily per-(line, shift, product, status) counters behind the dashboard statistics.
+-- Maintained incrementally by InspectionFormRollupService; missing line/shift/product/status are stored as ''.
+CREATE TABLE IF NOT EXISTS inspection_form_daily_rollups (
+    inspection_date    DATE             NOT NULL,
+    line_no            VARCHAR(255)     NOT NULL,
+    shift              VARCHAR(255)     NOT NULL,
+    product            VARCHAR(255)     NOT NULL,
+    status             VARCHAR(255)     NOT NULL,
+    form_count         BIGINT           NOT NULL,
+    -- Approved or rejected forms with both timestamps, and the sum of their submission-to-review minutes
+    reviewed_count     BIGINT           NOT NULL,
+    turnaround_minutes DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_inspection_form_daily_rollups PRIMARY KEY (inspection_date, line_no, shift, product, status)
+);
+
+-- Seed from the existing forms
+INSERT INTO inspection_form_daily_rollups
+SELECT f.inspection_date, COALESCE(f.line_no, ''), COALESCE(f.shift, ''), COALESCE(f.product, ''), COALESCE(f.status, ''),
+       COUNT(*),
+       COUNT(*) FILTER (WHERE f.status IN ('APPROVED', 'REJECTED') AND f.submitted_at IS NOT NULL AND f.reviewed_at IS NOT NULL),
+       COALESCE(SUM(EXTRACT(EPOCH FROM (f.reviewed_at - f.submitted_at)) / 60)
+                FILTER (WHERE f.status IN ('APPROVED', 'REJECTED') AND f.submitted_at IS NOT NULL AND f.reviewed_at IS NOT NULL), 0)
+FROM inspection_forms f
+WHERE f.inspection_date IS NOT NULL
+GROUP BY 1, 2, 3, 4, 5
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,5 @@
+-- Inspection form ids now come from a sequence so Hibernate can batch inserts.
+-- Hibernate reserves 50 ids per nextval; start well past the existing ids.
+CREATE SEQUENCE IF NOT EXISTS inspection_forms_seq INCREMENT BY 50;
+
+SELECT setval('inspection_forms_seq', COALESCE((SELECT MAX(id) FROM inspection_forms), 0) + 50);
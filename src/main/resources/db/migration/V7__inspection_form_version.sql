@@ -0,0 +1,3 @@
+-- Optimistic locking: every change to a form increments its version.
+-- Existing rows start at 0; adding a column with a constant default doesn't rewrite the table.
+ALTER TABLE inspection_forms ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,52 @@
+-- Append-only history of every change to an inspection form, for audits and point-in-time views.
+-- Rows outlive the forms they describe, so there is no foreign key to inspection_forms.
+
+CREATE SEQUENCE IF NOT EXISTS inspection_form_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS inspection_form_events (
+    id          BIGINT       PRIMARY KEY,
+    form_id     BIGINT       NOT NULL,
+    type        VARCHAR(20)  NOT NULL CHECK (type IN ('CREATE', 'UPDATE', 'SUBMIT', 'APPROVE', 'REJECT', 'DELETE')),
+    actor       VARCHAR(255),
+    occurred_at TIMESTAMP(6) NOT NULL,
+    version     BIGINT,
+    changes     JSONB        NOT NULL
+);
+
+-- Per-form history, newest first, and replay up to a point in time
+CREATE INDEX IF NOT EXISTS idx_inspection_form_events_form_id_id
+    ON inspection_form_events (form_id, id);
+
+-- Per-user history, newest first
+CREATE INDEX IF NOT EXISTS idx_inspection_form_events_actor_id
+    ON inspection_form_events (actor, id);
+
+CREATE OR REPLACE FUNCTION inspection_form_events_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'inspection_form_events is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS inspection_form_events_append_only ON inspection_form_events;
+CREATE TRIGGER inspection_form_events_append_only
+    BEFORE UPDATE OR DELETE OR TRUNCATE ON inspection_form_events
+    FOR EACH STATEMENT EXECUTE FUNCTION inspection_form_events_append_only();
+
+-- Baseline: forms created before the history existed get a CREATE event with their current
+-- content, so their state can be replayed from here on
+INSERT INTO inspection_form_events (id, form_id, type, actor, occurred_at, version, changes)
+SELECT nextval('inspection_form_events_seq'), f.id, 'CREATE', NULL, COALESCE(f.updated_at, now()), f.version,
+       (SELECT COALESCE(jsonb_agg(jsonb_build_object('field', c.key, 'to', c.value)), '[]'::jsonb)
+        FROM jsonb_each(jsonb_strip_nulls(jsonb_build_object(
+                'documentNo', f.document_no, 'issuanceNo', f.issuance_no, 'issueDate', f.issue_date,
+                'reviewedDate', f.reviewed_date, 'page', f.page, 'preparedBy', f.prepared_by,
+                'approvedBy', f.approved_by, 'issued', f.issued, 'inspectionDate', f.inspection_date,
+                'product', f.product, 'sizeNo', f.size_no, 'shift', f.shift, 'variant', f.variant,
+                'lineNo', f.line_no, 'customer', f.customer, 'sampleSize', f.sample_size,
+                'lacquers', f.lacquers, 'characteristics', f.characteristics, 'qaExecutive', f.qa_executive,
+                'qaSignature', f.qa_signature, 'productionOperator', f.production_operator,
+                'operatorSignature', f.operator_signature, 'finalApprovalTime', f.final_approval_time,
+                'status', f.status, 'submittedBy', f.submitted_by, 'submittedAt', f.submitted_at,
+                'reviewedBy', f.reviewed_by, 'reviewedAt', f.reviewed_at, 'comments', f.comments))) c)
+FROM inspection_forms f
+WHERE NOT EXISTS (SELECT 1 FROM inspection_form_events e WHERE e.form_id = f.id);
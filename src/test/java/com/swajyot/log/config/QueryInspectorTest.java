@@ -0,0 +1,88 @@
+package com.swajyot.log.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryInspectorTest {
+
+    private static final String SELECT = "select * from inspection_forms where id = ?";
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new QueryInspectingDataSource(target, 0);
+    }
+
+    private void selectAll() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                // fetch every row
+            }
+        }
+    }
+
+    @Test
+    void countsStatementsAndFetchedRows() throws SQLException {
+        try (QueryInspector.Scope queries = QueryInspector.start()) {
+            selectAll();
+
+            assertThat(queries.statements()).isEqualTo(1);
+            assertThat(queries.rowsFetched()).isEqualTo(2);
+            assertThat(queries.executions()).containsEntry(SELECT, 1);
+        }
+    }
+
+    @Test
+    void innerScopesAddToTheEnclosingScope() throws SQLException {
+        try (QueryInspector.Scope outer = QueryInspector.start()) {
+            try (QueryInspector.Scope inner = QueryInspector.start()) {
+                selectAll();
+                assertThat(inner.statements()).isEqualTo(1);
+            }
+            assertThat(outer.statements()).isEqualTo(1);
+            assertThat(outer.mostRepeated()).hasValueSatisfying(e -> assertThat(e.getValue()).isEqualTo(1));
+        }
+        assertThat(QueryInspector.current()).isNull();
+    }
+
+    @Test
+    void budgetAssertionListsTheStatements() throws SQLException {
+        try (QueryInspector.Scope queries = QueryInspector.start()) {
+            selectAll();
+            queries.assertStatementsAtMost(1);
+
+            assertThatThrownBy(() -> queries.assertStatementsAtMost(0))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("1x " + SELECT);
+        }
+    }
+
+    @Test
+    void nothingIsRecordedOutsideAScope() throws SQLException {
+        selectAll();
+        assertThat(QueryInspector.current()).isNull();
+    }
+}
@@ -0,0 +1,47 @@
+package com.swajyot.log.model;
+
+import com.swajyot.log.model.InspectionForm.FormStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+class FormTransitionTest {
+
+    @Test
+    void submitAppliesToDraftAndRejectedForms() {
+        assertThat(FormTransition.SUBMIT.isAllowedFrom(FormStatus.DRAFT)).isTrue();
+        assertThat(FormTransition.SUBMIT.isAllowedFrom(FormStatus.REJECTED)).isTrue();
+        assertThat(FormTransition.SUBMIT.isAllowedFrom(FormStatus.SUBMITTED)).isFalse();
+        assertThat(FormTransition.SUBMIT.isAllowedFrom(FormStatus.APPROVED)).isFalse();
+        assertThat(FormTransition.SUBMIT.getTarget()).isEqualTo(FormStatus.SUBMITTED);
+    }
+
+    @Test
+    void reviewsOnlyApplyToSubmittedForms() {
+        for (FormTransition review : new FormTransition[] {FormTransition.APPROVE, FormTransition.REJECT}) {
+            assertThat(review.isReview()).isTrue();
+            assertThat(review.isAllowedFrom(FormStatus.SUBMITTED)).isTrue();
+            assertThat(review.isAllowedFrom(FormStatus.DRAFT)).isFalse();
+            assertThat(review.isAllowedFrom(FormStatus.APPROVED)).isFalse();
+            assertThat(review.isAllowedFrom(FormStatus.REJECTED)).isFalse();
+            assertThat(review.isAllowedFrom(null)).isFalse();
+        }
+    }
+
+    @Test
+    void approvedFormsAreFinal() {
+        for (FormTransition transition : FormTransition.values()) {
+            assertThat(transition.isAllowedFrom(FormStatus.APPROVED)).isFalse();
+        }
+    }
+
+    @Test
+    void transitionsRequireAnActor() {
+        assertThatIllegalArgumentException().isThrownBy(() -> FormTransition.REJECT.checkActor(null));
+        assertThatIllegalArgumentException().isThrownBy(() -> FormTransition.SUBMIT.checkActor(""));
+        assertThatNoException().isThrownBy(() -> FormTransition.REJECT.checkActor("qa"));
+        assertThatNoException().isThrownBy(() -> FormTransition.APPROVE.checkActor("qa"));
+    }
+}
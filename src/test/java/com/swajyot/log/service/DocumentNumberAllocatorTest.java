@@ -0,0 +1,142 @@
+package com.swajyot.log.service;
+
+import com.swajyot.log.model.InspectionForm;
+import com.swajyot.log.repository.DocumentSequenceRepository;
+import com.swajyot.log.repository.InspectionFormRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the configured database. Each test uses its own allocator instances, so in-memory
+ * blocks don't carry over between tests; the counter row of the current year is shared.
+ */
+@SpringBootTest
+class DocumentNumberAllocatorTest {
+
+    private static final String PREFIX = "AGI-APR-" + String.valueOf(LocalDate.now().getYear()).substring(2) + "-";
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    @Autowired
+    private InspectionFormRepository inspectionFormRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> createdForms = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedForms() {
+        inspectionFormRepository.deleteAllById(createdForms);
+    }
+
+    private DocumentNumberAllocator allocator(int blockSize) {
+        return new DocumentNumberAllocator(documentSequenceRepository, inspectionFormRepository, transactionManager, blockSize);
+    }
+
+    private static long sequenceOf(String documentNo) {
+        return Long.parseLong(documentNo.substring(PREFIX.length()));
+    }
+
+    @Test
+    void seedsCounterFromExistingFormsOnFirstUse() {
+        long highest = sequenceOf(allocator(1).nextDocumentNumber()) + 1000;
+        InspectionForm form = new InspectionForm();
+        form.setDocumentNo(PREFIX + highest);
+        form.setStatus(InspectionForm.FormStatus.DRAFT);
+        createdForms.add(inspectionFormRepository.save(form).getId());
+        jdbcTemplate.update("DELETE FROM document_sequences WHERE prefix = ?", PREFIX);
+
+        assertThat(allocator(5).nextDocumentNumber()).isEqualTo(PREFIX + (highest + 1));
+    }
+
+    @Test
+    void skipsSuppliedNumbersAboveTheCounter() {
+        DocumentNumberAllocator allocator = allocator(20);
+        long supplied = sequenceOf(allocator.nextDocumentNumber()) + 100;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> allocator.advancePast(PREFIX + supplied));
+
+        // Past the block cached in memory, and past the counter for other nodes
+        assertThat(allocator.nextDocumentNumber()).isEqualTo(PREFIX + (supplied + 1));
+        assertThat(sequenceOf(allocator(20).nextDocumentNumber())).isGreaterThan(supplied);
+    }
+
+    @Test
+    void concurrentAllocationsAreUnique() throws Exception {
+        // Two allocators stand in for two application nodes sharing the counter row
+        List<DocumentNumberAllocator> nodes = List.of(allocator(3), allocator(3));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                DocumentNumberAllocator node = nodes.get(i % 2);
+                results.add(executor.submit(() -> {
+                    List<String> numbers = new ArrayList<>();
+                    for (int j = 0; j < 50; j++) {
+                        numbers.add(node.nextDocumentNumber());
+                    }
+                    return numbers;
+                }));
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> result : results) {
+                all.addAll(result.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(all).hasSize(400);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void advancingWhileAnAllocationWaitsForTheCounterRowDoesNotDeadlock() throws Exception {
+        DocumentNumberAllocator allocator = allocator(1);
+        long supplied = sequenceOf(allocator.nextDocumentNumber()) + 10;
+        CountDownLatch rowLocked = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                allocator.advancePast(PREFIX + supplied);
+                rowLocked.countDown();
+                try {
+                    // Let the allocation below take the block's monitor and wait for the row
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                allocator.advancePast(PREFIX + (supplied + 1));
+            }));
+            rowLocked.await();
+            Future<String> allocation = executor.submit(allocator::nextDocumentNumber);
+
+            writer.get(10, TimeUnit.SECONDS);
+            assertThat(allocation.get(10, TimeUnit.SECONDS)).isEqualTo(PREFIX + (supplied + 2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}